@@ -0,0 +1,42 @@
+package jenkins.advancedqueue.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import jenkins.benchmark.jmh.BenchmarkFinder;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs all the benchmarks annotated with {@link jenkins.benchmark.jmh.JmhBenchmark}, use
+ * <code>mvn -P benchmark test</code>. The results are written to <code>jmh-report.json</code>.
+ * <p>
+ * The queue sizes can be narrowed with <code>-Dbenchmark.queueSize=1000</code>.
+ */
+class BenchmarkRunner {
+
+    @Test
+    void runJmhBenchmarks() throws Exception {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .mode(Mode.AverageTime)
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .threads(1)
+                .forks(1)
+                .shouldFailOnError(true)
+                .shouldDoGC(true)
+                .resultFormat(ResultFormatType.JSON)
+                .result("jmh-report.json");
+        String queueSize = System.getProperty("benchmark.queueSize");
+        if (queueSize != null) {
+            options.param("queueSize", queueSize.split(","));
+        }
+
+        BenchmarkFinder finder = new BenchmarkFinder(getClass());
+        finder.findBenchmarks(options);
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,65 @@
+package jenkins.advancedqueue.jobinclusion.strategy;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.Job;
+import java.util.ArrayList;
+import java.util.List;
+import jenkins.advancedqueue.DecisionLogger;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.benchmark.jmh.JmhBenchmarkState;
+import jenkins.model.Jenkins;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks matching every job against every view based job group, the walk done for a job that is in none of
+ * the groups or in the last one.
+ */
+@JmhBenchmark
+public class ViewBasedJobInclusionStrategyBenchmark {
+
+    private static final DecisionLogger NO_DECISION_LOG = new DecisionLogger() {
+        @Override
+        public DecisionLogger addDecisionLog(int indent, String log) {
+            return this;
+        }
+    };
+
+    public static class JenkinsState extends JmhBenchmarkState {
+
+        @Param({"10000"})
+        int numberOfJobs;
+
+        @Param({"50"})
+        int numberOfJobGroups;
+
+        List<ViewBasedJobInclusionStrategy> strategies;
+
+        List<Job<?, ?>> jobs;
+
+        @Override
+        public void setup() throws Exception {
+            Jenkins jenkins = getJenkins();
+            strategies = new ArrayList<>(numberOfJobGroups);
+            for (int i = 0; i < numberOfJobGroups; i++) {
+                ViewBasedJobInclusionStrategy strategy = new ViewBasedJobInclusionStrategy("All");
+                strategy.setJobFilter(new ViewBasedJobInclusionStrategy.JobPattern("group-" + i + "-.*"));
+                strategies.add(strategy);
+            }
+            jobs = new ArrayList<>(numberOfJobs);
+            for (int i = 0; i < numberOfJobs; i++) {
+                jobs.add(jenkins.createProject(FreeStyleProject.class, "group-" + i % numberOfJobGroups + "-job-" + i));
+            }
+        }
+    }
+
+    @Benchmark
+    public void contains(JenkinsState state, Blackhole blackhole) {
+        for (Job<?, ?> job : state.jobs) {
+            for (ViewBasedJobInclusionStrategy strategy : state.strategies) {
+                blackhole.consume(strategy.contains(NO_DECISION_LOG, job));
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package jenkins.advancedqueue.sorter;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import hudson.model.Queue;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import jenkins.advancedqueue.sorter.strategy.FQStrategy;
+
+/**
+ * A synthetic queue for the benchmarks. The queue items are real {@link Queue.BuildableItem}s of a stubbed
+ * {@link Queue.Task} and their {@link ItemInfo}s are weighted by the fair queuing strategy, so no Jenkins is
+ * needed to sort them.
+ */
+final class BenchmarkQueue {
+
+    static final int NUMBER_OF_PRIORITIES = 5;
+
+    final List<Queue.BuildableItem> items;
+
+    final List<ItemInfo> itemInfos;
+
+    private BenchmarkQueue(List<Queue.BuildableItem> items, List<ItemInfo> itemInfos) {
+        this.items = items;
+        this.itemInfos = itemInfos;
+    }
+
+    /**
+     * Creates the items, weights them and adds them to the {@link QueueItemCache} in a random order.
+     */
+    static BenchmarkQueue create(int size, int numberOfJobs) {
+        List<Queue.Task> tasks = new ArrayList<>(numberOfJobs);
+        for (int i = 0; i < numberOfJobs; i++) {
+            Queue.Task task = mock(Queue.Task.class);
+            when(task.getName()).thenReturn("benchmark-job-" + i);
+            tasks.add(task);
+        }
+        Random random = new Random(4711);
+        FQStrategy strategy = new FQStrategy(NUMBER_OF_PRIORITIES, 3);
+        List<Queue.BuildableItem> items = new ArrayList<>(size);
+        List<ItemInfo> itemInfos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Queue.BuildableItem item = new Queue.BuildableItem(new Queue.WaitingItem(
+                    Calendar.getInstance(), tasks.get(random.nextInt(numberOfJobs)), Collections.emptyList()));
+            ItemInfo itemInfo = new ItemInfo(item);
+            itemInfo.setPrioritySelection(1 + random.nextInt(NUMBER_OF_PRIORITIES));
+            strategy.onNewItem(item, itemInfo);
+            QueueItemCache.get().addItem(itemInfo);
+            items.add(item);
+            itemInfos.add(itemInfo);
+        }
+        // Queue order is not the sort order
+        Collections.shuffle(items, random);
+        Collections.shuffle(itemInfos, random);
+        return new BenchmarkQueue(items, itemInfos);
+    }
+
+    void clear() {
+        for (ItemInfo itemInfo : itemInfos) {
+            QueueItemCache.get().removeItem(itemInfo.getItemId());
+        }
+    }
+}
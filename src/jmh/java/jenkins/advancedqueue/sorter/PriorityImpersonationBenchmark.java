@@ -0,0 +1,69 @@
+package jenkins.advancedqueue.sorter;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.Queue;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import jenkins.advancedqueue.JobGroup;
+import jenkins.advancedqueue.PriorityConfiguration;
+import jenkins.advancedqueue.jobinclusion.strategy.AllJobsJobInclusionStrategy;
+import jenkins.advancedqueue.jobinclusion.strategy.ViewBasedJobInclusionStrategy;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.benchmark.jmh.JmhBenchmarkState;
+import jenkins.model.Jenkins;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks {@link PriorityConfiguration#getPriority} with and without running as SYSTEM. Every item is in the
+ * first job group for all jobs, the view based job group after it is never evaluated and is only there to make
+ * the configuration need elevated permissions, so both runs do the same work apart from the impersonation.
+ */
+@JmhBenchmark
+public class PriorityImpersonationBenchmark {
+
+    public static class JenkinsState extends JmhBenchmarkState {
+
+        @Param({"false", "true"})
+        boolean elevated;
+
+        @Param({"1000"})
+        int queueSize;
+
+        List<Queue.Item> items;
+
+        @Override
+        public void setup() throws Exception {
+            Jenkins jenkins = getJenkins();
+            List<JobGroup> jobGroups = new ArrayList<>(2);
+            JobGroup allJobs = new JobGroup();
+            allJobs.setId(0);
+            allJobs.setJobGroupStrategy(new AllJobsJobInclusionStrategy());
+            jobGroups.add(allJobs);
+            if (elevated) {
+                JobGroup view = new JobGroup();
+                view.setId(1);
+                view.setJobGroupStrategy(new ViewBasedJobInclusionStrategy("All"));
+                jobGroups.add(view);
+            }
+            PriorityConfiguration.get().setJobGroups(jobGroups);
+
+            items = new ArrayList<>(queueSize);
+            for (int i = 0; i < queueSize; i++) {
+                FreeStyleProject project = jenkins.createProject(FreeStyleProject.class, "job-" + i);
+                items.add(new Queue.WaitingItem(Calendar.getInstance(), project, Collections.emptyList()));
+            }
+        }
+    }
+
+    @Benchmark
+    public void getPriority(JenkinsState state, Blackhole blackhole) {
+        PriorityConfiguration priorityConfiguration = PriorityConfiguration.get();
+        for (Queue.Item item : state.items) {
+            blackhole.consume(priorityConfiguration.getPriority(item, new ItemInfo(item)));
+        }
+    }
+}
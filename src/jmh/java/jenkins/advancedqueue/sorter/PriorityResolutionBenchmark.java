@@ -0,0 +1,75 @@
+package jenkins.advancedqueue.sorter;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.Queue;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import jenkins.advancedqueue.JobGroup;
+import jenkins.advancedqueue.PriorityConfiguration;
+import jenkins.advancedqueue.jobinclusion.strategy.AllJobsJobInclusionStrategy;
+import jenkins.advancedqueue.jobinclusion.strategy.ViewBasedJobInclusionStrategy;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.benchmark.jmh.JmhBenchmarkState;
+import jenkins.model.Jenkins;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks {@link PriorityConfiguration#getPriority} the way {@link AdvancedQueueSorter#onNewItem} calls it.
+ * Resolving a priority walks the job groups and their views so this benchmark needs a Jenkins, it is started
+ * once for the trial by {@link JmhBenchmarkState}.
+ */
+@JmhBenchmark
+public class PriorityResolutionBenchmark {
+
+    public static class JenkinsState extends JmhBenchmarkState {
+
+        @Param({"100", "1000"})
+        int queueSize;
+
+        @Param({"10"})
+        int numberOfJobGroups;
+
+        List<Queue.Item> items;
+
+        @Override
+        public void setup() throws Exception {
+            Jenkins jenkins = getJenkins();
+            // Every job group but the last filters the All view on a job name pattern
+            List<JobGroup> jobGroups = new ArrayList<>(numberOfJobGroups);
+            for (int i = 0; i < numberOfJobGroups; i++) {
+                JobGroup jobGroup = new JobGroup();
+                jobGroup.setId(i);
+                jobGroup.setPriority(1 + i % BenchmarkQueue.NUMBER_OF_PRIORITIES);
+                if (i < numberOfJobGroups - 1) {
+                    ViewBasedJobInclusionStrategy strategy = new ViewBasedJobInclusionStrategy("All");
+                    strategy.setJobFilter(new ViewBasedJobInclusionStrategy.JobPattern("group-" + i + "-.*"));
+                    jobGroup.setJobGroupStrategy(strategy);
+                } else {
+                    jobGroup.setJobGroupStrategy(new AllJobsJobInclusionStrategy());
+                }
+                jobGroups.add(jobGroup);
+            }
+            PriorityConfiguration.get().setJobGroups(jobGroups);
+
+            // One job per queue item, spread over the job groups and jobs that are in no group
+            items = new ArrayList<>(queueSize);
+            for (int i = 0; i < queueSize; i++) {
+                FreeStyleProject project =
+                        jenkins.createProject(FreeStyleProject.class, "group-" + i % numberOfJobGroups + "-job-" + i);
+                items.add(new Queue.WaitingItem(Calendar.getInstance(), project, Collections.emptyList()));
+            }
+        }
+    }
+
+    @Benchmark
+    public void getPriority(JenkinsState state, Blackhole blackhole) {
+        PriorityConfiguration priorityConfiguration = PriorityConfiguration.get();
+        for (Queue.Item item : state.items) {
+            blackhole.consume(priorityConfiguration.getPriority(item, new ItemInfo(item)));
+        }
+    }
+}
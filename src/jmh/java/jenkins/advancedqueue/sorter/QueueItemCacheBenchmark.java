@@ -0,0 +1,90 @@
+package jenkins.advancedqueue.sorter;
+
+import java.util.List;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks adding, getting and removing the items of a synthetic queue in the {@link QueueItemCache}.
+ */
+@JmhBenchmark
+public class QueueItemCacheBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class QueueState {
+
+        @Param({"100", "1000", "10000"})
+        int queueSize;
+
+        BenchmarkQueue queue;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            queue = BenchmarkQueue.create(queueSize, Math.max(1, queueSize / 10));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            queue.clear();
+        }
+    }
+
+    @Benchmark
+    public void getItems(QueueState state, Blackhole blackhole) {
+        QueueItemCache cache = QueueItemCache.get();
+        for (ItemInfo itemInfo : state.queue.itemInfos) {
+            blackhole.consume(cache.getItem(itemInfo.getItemId()));
+        }
+    }
+
+    @Benchmark
+    public void getJobPriorityInfos(QueueState state, Blackhole blackhole) {
+        QueueItemCache cache = QueueItemCache.get();
+        for (ItemInfo itemInfo : state.queue.itemInfos) {
+            blackhole.consume(cache.getJobPriorityInfo(itemInfo.getJobName()));
+        }
+    }
+
+    /**
+     * Removes every item and adds it back, as the queue does when items leave and enter.
+     */
+    @Benchmark
+    public void removeAndAddItems(QueueState state) {
+        QueueItemCache cache = QueueItemCache.get();
+        List<ItemInfo> itemInfos = state.queue.itemInfos;
+        for (ItemInfo itemInfo : itemInfos) {
+            cache.removeItem(itemInfo.getItemId());
+            cache.addItem(itemInfo);
+        }
+    }
+
+    /**
+     * Looks up the items while another thread of the group keeps replacing them, as the executor threads do while the
+     * queue maintenance changes the queue.
+     */
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public void contendedGetItems(QueueState state, Blackhole blackhole) {
+        QueueItemCache cache = QueueItemCache.get();
+        for (ItemInfo itemInfo : state.queue.itemInfos) {
+            blackhole.consume(cache.getItem(itemInfo.getItemId()));
+        }
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public void contendedReplaceItems(QueueState state) {
+        removeAndAddItems(state);
+    }
+}
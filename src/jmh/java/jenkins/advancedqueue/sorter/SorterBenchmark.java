@@ -0,0 +1,84 @@
+package jenkins.advancedqueue.sorter;
+
+import hudson.model.Queue;
+import java.util.ArrayList;
+import java.util.List;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks comparing and sorting the items of a synthetic queue.
+ */
+@JmhBenchmark
+public class SorterBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class QueueState {
+
+        @Param({"100", "1000", "10000"})
+        int queueSize;
+
+        BenchmarkQueue queue;
+
+        AdvancedQueueSorter sorter;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            queue = BenchmarkQueue.create(queueSize, Math.max(1, queueSize / 10));
+            sorter = new AdvancedQueueSorter();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            queue.clear();
+        }
+    }
+
+    @Benchmark
+    public void compareItemInfos(QueueState state, Blackhole blackhole) {
+        List<ItemInfo> itemInfos = state.queue.itemInfos;
+        for (int i = 1; i < itemInfos.size(); i++) {
+            blackhole.consume(itemInfos.get(i - 1).compareTo(itemInfos.get(i)));
+        }
+    }
+
+    @Benchmark
+    public List<Queue.BuildableItem> sortNotWaitingItems(QueueState state) {
+        List<Queue.BuildableItem> items = new ArrayList<>(state.queue.items);
+        state.sorter.sortNotWaitingItems(items);
+        return items;
+    }
+
+    @Benchmark
+    public List<Queue.BuildableItem> sortUsingComparator(QueueState state) {
+        List<Queue.BuildableItem> items = new ArrayList<>(state.queue.items);
+        state.sorter.sortUsingComparator(items);
+        return items;
+    }
+
+    @Benchmark
+    public List<Queue.BuildableItem> sortUsingSnapshot(QueueState state) {
+        List<Queue.BuildableItem> items = new ArrayList<>(state.queue.items);
+        state.sorter.sortUsingSnapshot(items);
+        return items;
+    }
+
+    @Benchmark
+    public List<Queue.BuildableItem> sortUsingIndex(QueueState state) {
+        List<Queue.BuildableItem> items = new ArrayList<>(state.queue.items);
+        state.sorter.sortUsingIndex(items);
+        return items;
+    }
+
+    @Benchmark
+    public List<ItemInfo> getSortedList(QueueState state) {
+        return QueueItemCache.get().getSortedList();
+    }
+}
@@ -0,0 +1,84 @@
+package jenkins.advancedqueue.sorter;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import hudson.model.Run;
+import hudson.model.queue.WorkUnit;
+import java.util.List;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the {@link StartedJobItemCache} as used by the upstream cause strategy, the items of a synthetic
+ * queue leave the queue and are started.
+ */
+@JmhBenchmark
+public class StartedJobItemCacheBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class StartedState {
+
+        @Param({"100", "1000", "10000"})
+        int queueSize;
+
+        BenchmarkQueue queue;
+
+        Run<?, ?>[] runs;
+
+        WorkUnit workUnit;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            queue = BenchmarkQueue.create(queueSize, Math.max(1, queueSize / 10));
+            // Runs are stubbed once so that stubbing is not part of the measurements
+            List<ItemInfo> itemInfos = queue.itemInfos;
+            runs = new Run<?, ?>[itemInfos.size()];
+            for (int i = 0; i < runs.length; i++) {
+                Run<?, ?> run = mock(Run.class);
+                when(run.getQueueId()).thenReturn(itemInfos.get(i).getItemId());
+                when(run.getNumber()).thenReturn(i + 1);
+                runs[i] = run;
+            }
+            workUnit = mock(WorkUnit.class);
+            leaveAndStart();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            queue.clear();
+        }
+
+        void leaveAndStart() {
+            StartedJobItemCache cache = StartedJobItemCache.get();
+            List<ItemInfo> itemInfos = queue.itemInfos;
+            for (int i = 0; i < runs.length; i++) {
+                cache.addItem(itemInfos.get(i), workUnit);
+            }
+            for (Run<?, ?> run : runs) {
+                cache.onStarted(run);
+            }
+        }
+    }
+
+    @Benchmark
+    public void leaveAndStart(StartedState state) {
+        state.leaveAndStart();
+    }
+
+    @Benchmark
+    public void getStartedItems(StartedState state, Blackhole blackhole) {
+        StartedJobItemCache cache = StartedJobItemCache.get();
+        List<ItemInfo> itemInfos = state.queue.itemInfos;
+        for (int i = 0; i < itemInfos.size(); i++) {
+            blackhole.consume(cache.getStartedItem(itemInfos.get(i).getJobName(), i + 1));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package jenkins.advancedqueue.sorter.strategy;
+
+import static org.mockito.Mockito.mock;
+
+import hudson.model.Queue;
+import java.util.Random;
+import jenkins.advancedqueue.sorter.SorterStrategyCallback;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks assigning weights to a synthetic queue with the fair queuing strategies.
+ */
+@JmhBenchmark
+public class FQStrategyBenchmark {
+
+    private static final int NUMBER_OF_PRIORITIES = 5;
+
+    private static final class Callback implements SorterStrategyCallback {
+        private final int priority;
+        private float weight;
+
+        Callback(int priority) {
+            this.priority = priority;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public SorterStrategyCallback setWeightSelection(float weight) {
+            this.weight = weight;
+            return this;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class QueueState {
+
+        @Param({"100", "1000", "10000"})
+        int queueSize;
+
+        Callback[] callbacks;
+
+        // The strategies only look at the priority of the callback
+        Queue.Item item;
+
+        FQStrategy fqStrategy;
+
+        WFQStrategy wfqStrategy;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Random random = new Random(4711);
+            callbacks = new Callback[queueSize];
+            for (int i = 0; i < queueSize; i++) {
+                callbacks[i] = new Callback(1 + random.nextInt(NUMBER_OF_PRIORITIES));
+            }
+            item = mock(Queue.Item.class);
+            fqStrategy = new FQStrategy(NUMBER_OF_PRIORITIES, 3);
+            wfqStrategy = new WFQStrategy(NUMBER_OF_PRIORITIES, 3);
+        }
+    }
+
+    @Benchmark
+    public void fqOnNewItem(QueueState state, Blackhole blackhole) {
+        for (Callback callback : state.callbacks) {
+            state.fqStrategy.onNewItem(state.item, callback);
+            blackhole.consume(callback.weight);
+        }
+    }
+
+    @Benchmark
+    public void wfqOnNewItem(QueueState state, Blackhole blackhole) {
+        for (Callback callback : state.callbacks) {
+            state.wfqStrategy.onNewItem(state.item, callback);
+            blackhole.consume(callback.weight);
+        }
+    }
+}
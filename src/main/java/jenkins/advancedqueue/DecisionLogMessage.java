@@ -0,0 +1,71 @@
+package jenkins.advancedqueue;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.model.Describable;
+import hudson.model.Item;
+
+/**
+ * The entries of the decision log, recorded as a message and an argument and only rendered to text when the
+ * decision log is read.
+ * <p>
+ * Arguments are rendered when the text is needed: {@link Item}s by their full name, {@link Describable}s by
+ * the display name of their descriptor and classes by their name, anything else by its string value.
+ */
+public enum DecisionLogMessage {
+    NOT_A_JOB("Queue.Item is not a Job - Assigning global default priority"),
+    GLOBAL_DEFAULT_PRIORITY("Assigning global default priority"),
+    NOT_A_TOP_LEVEL_ITEM("Job is not a TopLevelItem [%s] ..."),
+    EVALUATING_JOB_GROUP("Evaluating JobGroup [%s] ..."),
+    EVALUATING_STRATEGIES("Evaluating strategies ..."),
+    EVALUATING_STRATEGY("Evaluating strategy [%s] ..."),
+    STRATEGY_APPLICABLE("Strategy is applicable"),
+    NO_APPLICABLE_STRATEGY("No applicable strategy - Using JobGroup default"),
+    MATRIX_CONFIGURATION("Job is MatrixConfiguration [%s] ..."),
+    MATRIX_PROJECT_FOUND("MatrixProject found in cache, using priority from queue-item [%s]"),
+    MATRIX_PROJECT_NOT_FOUND("MatrixProject not found in cache, assigning global default priority"),
+    VIEW_NOT_USING_FILTER("Not using filter ..."),
+    VIEW_USING_FILTER("Using filter ..."),
+    VIEW_JOB_MATCHING_FILTER("Job is matching the filter ..."),
+    VIEW_JOB_NOT_MATCHING_FILTER("Job is not matching the filter ..."),
+    VIEW_FILTER_SYNTAX_ERROR("Filter has syntax error"),
+    FOLDER_CHECKING("Checking for Cloudbees Folder inclusion ..."),
+    FOLDER_EVALUATING("Evaluating Folder [%s] ..."),
+    FOLDER_JOB_GROUP_ENABLED("JobGroup is enabled, with JobGroup [%s] ..."),
+    FOLDER_NO_MATCH("No match ..."),
+    PROPERTY_CHECKING("Checking for Job Property inclusion for [%s]..."),
+    PROPERTY_JOB_GROUP_ENABLED("JobGroup is enabled on job, with JobGroup [%s] ..."),
+    JOB_INCLUDED("Job is included in JobGroup ..."),
+    JOB_NOT_INCLUDED("Job is not included in JobGroup ...");
+
+    private final String template;
+
+    DecisionLogMessage(String template) {
+        this.template = template;
+    }
+
+    /**
+     * Renders the message with its argument.
+     *
+     * @param argument the argument of the message, <code>null</code> for messages without one
+     * @return the text of the message
+     */
+    public String format(@CheckForNull Object argument) {
+        if (argument == null) {
+            return template;
+        }
+        return template.formatted(render(argument));
+    }
+
+    private static String render(Object argument) {
+        if (argument instanceof Item item) {
+            return item.getFullName();
+        }
+        if (argument instanceof Describable<?> describable) {
+            return describable.getDescriptor().getDisplayName();
+        }
+        if (argument instanceof Class<?> clazz) {
+            return clazz.getName();
+        }
+        return String.valueOf(argument);
+    }
+}
@@ -30,4 +30,20 @@ package jenkins.advancedqueue;
 public interface DecisionLogger {
 
     DecisionLogger addDecisionLog(int indent, String log);
+
+    /**
+     * Adds a structured entry to the decision log. Loggers that keep the log only when it will be read
+     * override this to skip rendering the text, by default the text is rendered right away.
+     */
+    default DecisionLogger addDecisionLog(int indent, DecisionLogMessage message) {
+        return addDecisionLog(indent, message.format(null));
+    }
+
+    /**
+     * Adds a structured entry with an argument to the decision log, see {@link DecisionLogMessage} for how the
+     * argument is rendered.
+     */
+    default DecisionLogger addDecisionLog(int indent, DecisionLogMessage message, Object argument) {
+        return addDecisionLog(indent, message.format(argument));
+    }
 }
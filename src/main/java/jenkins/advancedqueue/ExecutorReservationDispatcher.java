@@ -0,0 +1,149 @@
+package jenkins.advancedqueue;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.model.Queue;
+import hudson.model.queue.CauseOfBlockage;
+import hudson.model.queue.QueueTaskDispatcher;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import jenkins.advancedqueue.sorter.PrioritySnapshot;
+import jenkins.model.Jenkins;
+
+/**
+ * Keeps a share of the executors for the items with the highest priorities, so that they do not have to wait for
+ * a pool filled with builds of lower priority. Items with a lower priority only get an executor while more
+ * executors than the reserved ones are idle.
+ * <p>
+ * The executors are counted once for every pass of the queue, when the sorter sorts the buildable items. The share
+ * is a percentage of all the executors, rounded up, and the executors over it that are idle at the start of the
+ * pass can be handed to items with a lower priority. Items are handed out in sort order so the ones with the
+ * highest priorities come first. {@link #canTake(Node, Queue.BuildableItem)} is only asked for the nodes that can
+ * run the item, it looks the item up in the count of the pass and an item is counted once however many nodes it is
+ * asked for.
+ * <p>
+ * Blocked items are not looked at, an item that is held back stays buildable. Flyweight tasks, like the top level
+ * of a Pipeline, do not use an executor and are never held back.
+ */
+@Extension
+public class ExecutorReservationDispatcher extends QueueTaskDispatcher {
+
+    /**
+     * The executors counted for a pass of the queue.
+     */
+    static final class Reservation {
+
+        private final int reservedPriorities;
+
+        // The idle executors over the reserved ones, those are the ones lower priorities can have
+        private final int unreservedExecutors;
+
+        // The items with a lower priority let through in this pass
+        private final Set<Long> admitted = ConcurrentHashMap.newKeySet();
+
+        private final CauseOfBlockage blockage;
+
+        Reservation(int reservedPriorities, int reservedExecutors, int idleExecutors) {
+            this.reservedPriorities = reservedPriorities;
+            this.unreservedExecutors = Math.max(0, idleExecutors - reservedExecutors);
+            this.blockage = new ExecutorsReserved(reservedExecutors, reservedPriorities);
+        }
+
+        @CheckForNull
+        CauseOfBlockage canTake(long itemId, int priority) {
+            if (priority <= reservedPriorities || admitted.contains(itemId)) {
+                return null;
+            }
+            // Called from the queue maintenance only, one item at a time
+            if (admitted.size() >= unreservedExecutors) {
+                return blockage;
+            }
+            admitted.add(itemId);
+            return null;
+        }
+    }
+
+    private static final class ExecutorsReserved extends CauseOfBlockage {
+
+        private final int reservedExecutors;
+
+        private final int reservedPriorities;
+
+        ExecutorsReserved(int reservedExecutors, int reservedPriorities) {
+            this.reservedExecutors = reservedExecutors;
+            this.reservedPriorities = reservedPriorities;
+        }
+
+        @Override
+        public String getShortDescription() {
+            return Messages.Executors_reserved_for_priorities(reservedExecutors, reservedPriorities);
+        }
+    }
+
+    // Null while no executors are reserved
+    private volatile Reservation reservation;
+
+    public static ExecutorReservationDispatcher get() {
+        return ExtensionList.lookupSingleton(ExecutorReservationDispatcher.class);
+    }
+
+    /**
+     * Counts the executors for a new pass of the queue, called before the buildable items are handed out.
+     */
+    public void onQueuePass() {
+        PrioritySorterConfiguration configuration = PrioritySorterConfiguration.get();
+        int percentage = configuration.getReservedExecutorsPercentage();
+        if (percentage <= 0) {
+            reservation = null;
+            return;
+        }
+        int totalExecutors = 0;
+        int idleExecutors = 0;
+        for (Computer computer : Jenkins.get().getComputers()) {
+            if (computer.isOnline() && computer.isAcceptingTasks()) {
+                totalExecutors += computer.getNumExecutors();
+                idleExecutors += computer.countIdle();
+            }
+        }
+        onQueuePass(configuration.getReservedPriorities(), percentage, totalExecutors, idleExecutors);
+    }
+
+    /* package-protected for testing */
+    void onQueuePass(int reservedPriorities, int percentage, int totalExecutors, int idleExecutors) {
+        // Rounded up so that any reservation keeps at least one executor
+        int reservedExecutors = (int) Math.ceil(totalExecutors * Math.min(percentage, 100) / 100.0);
+        reservation = new Reservation(reservedPriorities, reservedExecutors, idleExecutors);
+    }
+
+    /* package-protected for testing */
+    @CheckForNull
+    Reservation getReservation() {
+        return reservation;
+    }
+
+    @Override
+    public CauseOfBlockage canTake(Node node, Queue.BuildableItem item) {
+        if (item.task instanceof Queue.FlyweightTask) {
+            return null;
+        }
+        return canTake(item.getId());
+    }
+
+    /* package-protected for testing */
+    @CheckForNull
+    CauseOfBlockage canTake(long itemId) {
+        Reservation current = reservation;
+        if (current == null) {
+            return null;
+        }
+        int priority = PrioritySnapshot.get().getPriority(itemId);
+        if (priority == PrioritySnapshot.UNKNOWN) {
+            // Not known to the sorter so its priority cannot be told
+            return null;
+        }
+        return current.canTake(itemId, priority);
+    }
+}
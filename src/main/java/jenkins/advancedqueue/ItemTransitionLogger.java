@@ -36,6 +36,13 @@ public class ItemTransitionLogger {
 
     private static final Logger LOGGER = Logger.getLogger("PrioritySorter.Queue.Items");
 
+    /**
+     * @return <code>true</code> if the decision logs of new items are logged and need to be kept
+     */
+    public static boolean isDecisionLogEnabled() {
+        return LOGGER.isLoggable(Level.FINER);
+    }
+
     public static void logNewItem(@NonNull ItemInfo info) {
         if (LOGGER.isLoggable(Level.FINER)) {
             LOGGER.finer("New Item: " + info.toString() + "\n" + info.getDescisionLog());
@@ -94,10 +94,20 @@ public class JobGroup {
             return priorityStrategy.getPriority(item);
         }
 
+        @Override
+        public int getPriorityIfApplicable(Item item) {
+            return priorityStrategy.getPriorityIfApplicable(item);
+        }
+
         @Override
         public void numberPrioritiesUpdates(int oldNumberOfPriorities, int newNumberOfPriorities) {
             priorityStrategy.numberPrioritiesUpdates(oldNumberOfPriorities, newNumberOfPriorities);
         }
+
+        @Override
+        public boolean requiresElevatedPermissions() {
+            return priorityStrategy == null || priorityStrategy.requiresElevatedPermissions();
+        }
     }
 
     private int id = 0;
@@ -0,0 +1,162 @@
+package jenkins.advancedqueue;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.Job;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jenkins.advancedqueue.jobinclusion.JobInclusionStrategy;
+import jenkins.advancedqueue.jobinclusion.strategy.AllJobsJobInclusionStrategy;
+import jenkins.advancedqueue.jobinclusion.strategy.FolderBasedJobInclusionStrategy;
+import jenkins.advancedqueue.jobinclusion.strategy.FolderTrie;
+import jenkins.advancedqueue.jobinclusion.strategy.PropertyBasedJobInclusionStrategy;
+import jenkins.advancedqueue.priority.PriorityStrategy;
+
+/**
+ * The JobGroups compiled for finding the first JobGroup that contains a job. Compiled when the JobGroups change
+ * and never changed after, so it can be swapped in as a whole.
+ * <p>
+ * The strategies of the plugin that only depend on the name or the properties of a job are bucketed by type:
+ * the first JobGroup for all jobs, the folder based JobGroups in a {@link FolderTrie} and the property based
+ * JobGroups by name. Each bucket gives the first JobGroup of its type that can contain a job without evaluating
+ * the JobGroups one by one. Only the other JobGroups that come before the first of these are still evaluated in
+ * order, so the first match stays the same.
+ * <p>
+ * The table also knows if any of the strategies needs elevated permissions, so that the priority of an item only
+ * runs as {@link hudson.security.ACL#SYSTEM2} when it has to.
+ */
+final class JobGroupDecisionTable {
+
+    private static final int NO_POSITION = Integer.MAX_VALUE;
+
+    // The JobGroups in order
+    private final List<JobGroup> jobGroups;
+    private final Map<Integer, JobGroup> id2jobGroup = new HashMap<>();
+    // The position of the first JobGroup for all jobs
+    private final int firstAllJobs;
+    // The positions of the folder based JobGroups by folder
+    private final FolderTrie folders = new FolderTrie();
+    // The position of the first property based JobGroup of every name
+    private final Map<String, Integer> propertyNames = new HashMap<>();
+    // The positions of the JobGroups that need to be evaluated, in order
+    private final int[] others;
+    // If any JobInclusionStrategy or PriorityStrategy needs to run as SYSTEM
+    private final boolean requiresElevatedPermissions;
+
+    JobGroupDecisionTable(List<JobGroup> jobGroups) {
+        this.jobGroups = List.copyOf(jobGroups);
+        int allJobs = NO_POSITION;
+        int[] positions = new int[this.jobGroups.size()];
+        int count = 0;
+        boolean elevated = false;
+        for (int i = 0; i < this.jobGroups.size(); i++) {
+            JobGroup jobGroup = this.jobGroups.get(i);
+            id2jobGroup.put(jobGroup.getId(), jobGroup);
+            // Subclasses may change what they contain, those are evaluated
+            JobInclusionStrategy strategy = jobGroup.getJobGroupStrategy();
+            elevated |= requiresElevatedPermissions(jobGroup);
+            Class<?> type = strategy != null ? strategy.getClass() : null;
+            if (type == AllJobsJobInclusionStrategy.class) {
+                allJobs = Math.min(allJobs, i);
+            } else if (type == FolderBasedJobInclusionStrategy.class) {
+                folders.put(((FolderBasedJobInclusionStrategy) strategy).getFolderName(), i);
+            } else if (type == PropertyBasedJobInclusionStrategy.class) {
+                String name = ((PropertyBasedJobInclusionStrategy) strategy).getName();
+                if (name != null) {
+                    propertyNames.putIfAbsent(name, i);
+                }
+            } else {
+                positions[count++] = i;
+            }
+        }
+        this.firstAllJobs = allJobs;
+        this.others = Arrays.copyOf(positions, count);
+        this.requiresElevatedPermissions = elevated;
+    }
+
+    private static boolean requiresElevatedPermissions(JobGroup jobGroup) {
+        JobInclusionStrategy strategy = jobGroup.getJobGroupStrategy();
+        if (strategy == null || strategy.requiresElevatedPermissions()) {
+            return true;
+        }
+        if (jobGroup.isUsePriorityStrategies()) {
+            for (PriorityStrategy priorityStrategy : jobGroup.getPriorityStrategies()) {
+                if (priorityStrategy.requiresElevatedPermissions()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tells if finding the priority of a job needs to run as {@link hudson.security.ACL#SYSTEM2}.
+     *
+     * @return <code>true</code> if any of the strategies of the JobGroups needs elevated permissions
+     */
+    boolean requiresElevatedPermissions() {
+        return requiresElevatedPermissions;
+    }
+
+    @CheckForNull
+    JobGroup getJobGroup(int id) {
+        return id2jobGroup.get(id);
+    }
+
+    /**
+     * Finds the first JobGroup that contains a job.
+     *
+     * @param priorityCallback the callback that keeps the decision log
+     * @param job the job
+     * @return the first JobGroup containing the job or <code>null</code> if none does
+     */
+    @CheckForNull
+    JobGroup findJobGroup(@NonNull PriorityConfigurationCallback priorityCallback, @NonNull Job<?, ?> job) {
+        // The decision log lists every JobGroup that is evaluated
+        if (ItemTransitionLogger.isDecisionLogEnabled()) {
+            for (JobGroup jobGroup : jobGroups) {
+                if (isInJobGroup(priorityCallback, jobGroup, job)) {
+                    return jobGroup;
+                }
+            }
+            return null;
+        }
+        int candidate = firstAllJobs;
+        if (!folders.isEmpty()) {
+            int folderMatch = folders.firstMatch(job.getFullName());
+            if (folderMatch != FolderTrie.NO_MATCH) {
+                candidate = Math.min(candidate, folderMatch);
+            }
+        }
+        if (!propertyNames.isEmpty()) {
+            String name = PropertyBasedJobInclusionStrategy.getJobGroupName(priorityCallback, job);
+            Integer propertyMatch = name != null ? propertyNames.get(name) : null;
+            if (propertyMatch != null) {
+                candidate = Math.min(candidate, propertyMatch);
+            }
+        }
+        for (int position : others) {
+            if (position > candidate) {
+                break;
+            }
+            JobGroup jobGroup = jobGroups.get(position);
+            if (isInJobGroup(priorityCallback, jobGroup, job)) {
+                return jobGroup;
+            }
+        }
+        if (candidate == NO_POSITION) {
+            return null;
+        }
+        JobGroup jobGroup = jobGroups.get(candidate);
+        priorityCallback.addDecisionLog(0, DecisionLogMessage.EVALUATING_JOB_GROUP, jobGroup.getId());
+        return jobGroup;
+    }
+
+    private static boolean isInJobGroup(
+            PriorityConfigurationCallback priorityCallback, JobGroup jobGroup, Job<?, ?> job) {
+        priorityCallback.addDecisionLog(0, DecisionLogMessage.EVALUATING_JOB_GROUP, jobGroup.getId());
+        return jobGroup.getJobGroupStrategy().contains(priorityCallback, job);
+    }
+}
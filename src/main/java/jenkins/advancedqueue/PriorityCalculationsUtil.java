@@ -18,4 +18,23 @@ public class PriorityCalculationsUtil {
         }
         return (int) (Math.ceil(p * (newmax - 1))) + 1;
     }
+
+    /**
+     * Scales a priority set under a scale epoch of the {@link PrioritySorterConfiguration} to the current number of
+     * priorities.
+     *
+     * @param scaleEpoch the scale epoch the priority was set under
+     * @param value the priority
+     * @return the priority on the current number of priorities
+     */
+    public static int scaleFromEpoch(int scaleEpoch, int value) {
+        PrioritySorterConfiguration configuration = PrioritySorterConfiguration.get();
+        if (scaleEpoch == configuration.getScaleEpoch()) {
+            return value;
+        }
+        return scale(
+                configuration.getNumberOfPriorities(scaleEpoch),
+                configuration.getStrategy().getNumberOfPriorities(),
+                value);
+    }
 }
@@ -23,39 +23,48 @@
  */
 package jenkins.advancedqueue;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.DescriptorExtensionList;
 import hudson.Extension;
 import hudson.ExtensionList;
 import hudson.Plugin;
+import hudson.XmlFile;
 import hudson.matrix.MatrixConfiguration;
 import hudson.model.Descriptor;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
 import hudson.model.Job;
 import hudson.model.Queue;
 import hudson.model.RootAction;
+import hudson.model.Saveable;
 import hudson.model.TopLevelItem;
 import hudson.model.View;
 import hudson.model.ViewGroup;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
 import hudson.security.ACL;
 import hudson.util.FormApply;
 import hudson.util.FormValidation;
 import hudson.util.ListBoxModel;
 import jakarta.servlet.ServletException;
 import java.io.IOException;
+import java.util.AbstractList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import jenkins.advancedqueue.jobinclusion.JobInclusionStrategy;
 import jenkins.advancedqueue.priority.PriorityStrategy;
+import jenkins.advancedqueue.sorter.SorterStrategy;
 import jenkins.model.GlobalConfiguration;
 import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 import org.acegisecurity.context.SecurityContext;
@@ -76,7 +85,25 @@ public class PriorityConfiguration extends GlobalConfiguration implements RootAc
 
     private static final Logger LOGGER = Logger.getLogger(PriorityConfiguration.class.getName());
 
-    private transient Map<Integer, JobGroup> id2jobGroup;
+    /**
+     * Remember the JobGroup of every job, can be disabled for {@link JobInclusionStrategy}s that depend on
+     * more than the configuration of the jobs, folders and views.
+     */
+    static final boolean JOB_GROUP_CACHE =
+            SystemProperties.getBoolean(PriorityConfiguration.class.getName() + ".jobGroupCache", true);
+
+    /**
+     * Always find the priority of an item as {@link ACL#SYSTEM2}, also when none of the strategies needs it.
+     */
+    static final boolean ALWAYS_IMPERSONATE =
+            SystemProperties.getBoolean(PriorityConfiguration.class.getName() + ".alwaysImpersonate", false);
+
+    private static final int JOB_GROUP_CACHE_SIZE = 10000;
+    // Cached for jobs that are not in any JobGroup
+    private static final int NO_JOB_GROUP = -1;
+
+    // The jobGroups compiled for lookups, replaced as a whole when they change or the cache is invalidated
+    private transient volatile JobGroupLookup lookup;
     private transient PriorityConfigurationMatrixHelper priorityConfigurationMatrixHelper;
     private transient PriorityConfigurationPlaceholderTaskHelper placeholderTaskHelper =
             new PriorityConfigurationPlaceholderTaskHelper();
@@ -89,9 +116,8 @@ public class PriorityConfiguration extends GlobalConfiguration implements RootAc
         //
         Collections.sort(jobGroups, (JobGroup o1, JobGroup o2) -> o1.getId() - o2.getId());
         //
-        id2jobGroup = new HashMap<Integer, JobGroup>();
+        compileJobGroups();
         for (JobGroup jobGroup : jobGroups) {
-            id2jobGroup.put(jobGroup.getId(), jobGroup);
             Collections.sort(
                     jobGroup.getPriorityStrategies(),
                     (JobGroup.PriorityStrategyHolder o1, JobGroup.PriorityStrategyHolder o2) ->
@@ -141,16 +167,104 @@ public class PriorityConfiguration extends GlobalConfiguration implements RootAc
     }
 
     public List<JobGroup> getJobGroups() {
-        return jobGroups;
+        return new JobGroupList(jobGroups);
     }
 
     public void setJobGroups(List<JobGroup> jobGroups) {
-        this.jobGroups = jobGroups;
+        this.jobGroups = new LinkedList<JobGroup>(jobGroups);
+        compileJobGroups();
         save();
     }
 
+    // Synchronized with the invalidation so that a table compiled from new JobGroups is never replaced by an old one
+    private synchronized void compileJobGroups() {
+        lookup = new JobGroupLookup(new JobGroupDecisionTable(jobGroups));
+    }
+
+    /**
+     * Forgets the JobGroups found for the jobs, they are looked up again the next time they are needed.
+     */
+    public synchronized void invalidateJobGroupCache() {
+        lookup = new JobGroupLookup(lookup.table);
+    }
+
+    /**
+     * Forgets the JobGroup found for an item and, for a folder, the ones found for all items below it.
+     *
+     * @param item the item that changed
+     * @param fullName the full name the item has or had
+     */
+    private void invalidateJobGroupCache(Item item, String fullName) {
+        Cache<String, Integer> jobName2jobGroupId = lookup.jobName2jobGroupId;
+        jobName2jobGroupId.invalidate(fullName);
+        if (item instanceof ItemGroup) {
+            // Folders carry properties and views that affect all of their jobs
+            String prefix = fullName + "/";
+            jobName2jobGroupId.asMap().keySet().removeIf(name -> name.startsWith(prefix));
+        }
+    }
+
+    /**
+     * The compiled JobGroups together with the JobGroup ids found with them, published as one so that an id found
+     * in a table is never kept with another one.
+     */
+    private static final class JobGroupLookup {
+
+        private final JobGroupDecisionTable table;
+
+        // Keeps track of the JobGroup id of a job by its full name
+        private final Cache<String, Integer> jobName2jobGroupId =
+                CacheBuilder.newBuilder().maximumSize(JOB_GROUP_CACHE_SIZE).build();
+
+        JobGroupLookup(JobGroupDecisionTable table) {
+            this.table = table;
+        }
+    }
+
+    /**
+     * The JobGroups as returned by {@link #getJobGroups()}, changes are written through and update the lookups.
+     */
+    private class JobGroupList extends AbstractList<JobGroup> {
+
+        private final List<JobGroup> list;
+
+        JobGroupList(List<JobGroup> list) {
+            this.list = list;
+        }
+
+        @Override
+        public JobGroup get(int index) {
+            return list.get(index);
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public JobGroup set(int index, JobGroup element) {
+            JobGroup previous = list.set(index, element);
+            compileJobGroups();
+            return previous;
+        }
+
+        @Override
+        public void add(int index, JobGroup element) {
+            list.add(index, element);
+            compileJobGroups();
+        }
+
+        @Override
+        public JobGroup remove(int index) {
+            JobGroup previous = list.remove(index);
+            compileJobGroups();
+            return previous;
+        }
+    }
+
     public JobGroup getJobGroup(int id) {
-        return id2jobGroup.get(id);
+        return lookup.table.getJobGroup(id);
     }
 
     public ExtensionList<Descriptor<PriorityStrategy>> getPriorityStrategyDescriptors() {
@@ -173,8 +287,7 @@ public class PriorityConfiguration extends GlobalConfiguration implements RootAc
             FormApply.success("..").generateResponse(req, rsp, this);
             return;
         }
-        jobGroups = new LinkedList<JobGroup>();
-        id2jobGroup = new HashMap<Integer, JobGroup>();
+        List<JobGroup> jobGroups = new LinkedList<JobGroup>();
         //
         String parameter = req.getParameter("json");
         JSONObject jobGroupsObject = JSONObject.fromObject(parameter);
@@ -190,8 +303,9 @@ public class PriorityConfiguration extends GlobalConfiguration implements RootAc
 
             JobGroup jobGroup = req.bindJSON(JobGroup.class, jobGroupObject);
             jobGroups.add(jobGroup);
-            id2jobGroup.put(jobGroup.getId(), jobGroup);
         }
+        this.jobGroups = jobGroups;
+        compileJobGroups();
         save();
         FormApply.success("..").generateResponse(req, rsp, this);
     }
@@ -208,9 +322,14 @@ public class PriorityConfiguration extends GlobalConfiguration implements RootAc
     }
 
     public PriorityConfigurationCallback getPriority(Queue.Item item, PriorityConfigurationCallback priorityCallback) {
+        // Read once so that the item is evaluated against the JobGroups it was checked for
+        JobGroupLookup current = lookup;
+        if (!requiresElevatedPermissions(item, current.table)) {
+            return getPriorityInternal(item, priorityCallback, current);
+        }
         SecurityContext saveCtx = ACL.impersonate(ACL.SYSTEM);
         try {
-            return getPriorityInternal(item, priorityCallback);
+            return getPriorityInternal(item, priorityCallback, current);
         } finally {
             SecurityContextHolder.setContext(saveCtx);
         }
@@ -229,19 +348,30 @@ public class PriorityConfiguration extends GlobalConfiguration implements RootAc
         }
     }
 
+    /**
+     * Tells if the priority of an item has to be found as {@link ACL#SYSTEM2}. The owner of a Pipeline
+     * placeholder task is looked up by name, so it always does.
+     */
+    private boolean requiresElevatedPermissions(Queue.Item item, JobGroupDecisionTable table) {
+        return ALWAYS_IMPERSONATE
+                || table.requiresElevatedPermissions()
+                || placeholderTaskHelper.isPlaceholderTask(item.task);
+    }
+
     private PriorityConfigurationCallback getPriorityInternal(
-            Queue.Item item, PriorityConfigurationCallback priorityCallback) {
+            Queue.Item item, PriorityConfigurationCallback priorityCallback, JobGroupLookup current) {
         if (placeholderTaskHelper.isPlaceholderTask(item.task)) {
             return placeholderTaskHelper.getPriority(
                     (ExecutorStepExecution.PlaceholderTask) item.task, priorityCallback);
         }
 
+        // Read once for the item, it is the same for the whole evaluation
+        SorterStrategy sorterStrategy = PrioritySorterConfiguration.get().getStrategy();
         if (!(item.task instanceof Job)) {
             // Not a job generally this mean that this is a lightweight task so
             // priority doesn't really matter - returning default priority
-            priorityCallback.addDecisionLog(0, "Queue.Item is not a Job - Assigning global default priority");
-            return priorityCallback.setPrioritySelection(
-                    PrioritySorterConfiguration.get().getStrategy().getDefaultPriority());
+            priorityCallback.addDecisionLog(0, DecisionLogMessage.NOT_A_JOB);
+            return priorityCallback.setPrioritySelection(sorterStrategy.getDefaultPriority());
         }
 
         Job<?, ?> job = (Job<?, ?>) item.task;
@@ -251,30 +381,46 @@ public class PriorityConfiguration extends GlobalConfiguration implements RootAc
         }
 
         //
-        JobGroup jobGroup = getJobGroup(priorityCallback, job);
+        JobGroup jobGroup = getJobGroup(current, priorityCallback, job);
         if (jobGroup != null) {
-            return getPriorityForJobGroup(priorityCallback, jobGroup, item);
+            return getPriorityForJobGroup(priorityCallback, jobGroup, item, sorterStrategy);
         }
         //
-        priorityCallback.addDecisionLog(0, "Assigning global default priority");
-        return priorityCallback.setPrioritySelection(
-                PrioritySorterConfiguration.get().getStrategy().getDefaultPriority());
+        priorityCallback.addDecisionLog(0, DecisionLogMessage.GLOBAL_DEFAULT_PRIORITY);
+        return priorityCallback.setPrioritySelection(sorterStrategy.getDefaultPriority());
     }
 
     @CheckForNull
     public JobGroup getJobGroup(@NonNull PriorityConfigurationCallback priorityCallback, @NonNull Job<?, ?> job) {
+        return getJobGroup(lookup, priorityCallback, job);
+    }
+
+    @CheckForNull
+    private JobGroup getJobGroup(
+            JobGroupLookup current,
+            @NonNull PriorityConfigurationCallback priorityCallback,
+            @NonNull Job<?, ?> job) {
         if (!(job instanceof TopLevelItem)) {
-            priorityCallback.addDecisionLog(
-                    0, "Job is not a TopLevelItem [" + job.getClass().getName() + "] ...");
+            priorityCallback.addDecisionLog(0, DecisionLogMessage.NOT_A_TOP_LEVEL_ITEM, job.getClass());
             return null;
         }
-        for (JobGroup jobGroup : jobGroups) {
-            priorityCallback.addDecisionLog(0, "Evaluating JobGroup [" + jobGroup.getId() + "] ...");
-            if (jobGroup.getJobGroupStrategy().contains(priorityCallback, job)) {
-                return jobGroup;
+        JobGroupDecisionTable table = current.table;
+        if (!JOB_GROUP_CACHE) {
+            return table.findJobGroup(priorityCallback, job);
+        }
+        // The id is kept with the table it was found in, an invalidation publishes both anew
+        Cache<String, Integer> cache = current.jobName2jobGroupId;
+        String jobName = job.getFullName();
+        // The decision log is only complete when the JobGroups are evaluated
+        if (!ItemTransitionLogger.isDecisionLogEnabled()) {
+            Integer jobGroupId = cache.getIfPresent(jobName);
+            if (jobGroupId != null) {
+                return jobGroupId == NO_JOB_GROUP ? null : table.getJobGroup(jobGroupId);
             }
         }
-        return null;
+        JobGroup jobGroup = table.findJobGroup(priorityCallback, job);
+        cache.put(jobName, jobGroup != null ? jobGroup.getId() : NO_JOB_GROUP);
+        return jobGroup;
     }
 
     private boolean isJobInView(Job<?, ?> job, View view) {
@@ -296,24 +442,22 @@ public class PriorityConfiguration extends GlobalConfiguration implements RootAc
     }
 
     private PriorityConfigurationCallback getPriorityForJobGroup(
-            PriorityConfigurationCallback priorityCallback, JobGroup jobGroup, Queue.Item item) {
+            PriorityConfigurationCallback priorityCallback,
+            JobGroup jobGroup,
+            Queue.Item item,
+            SorterStrategy sorterStrategy) {
         int priority = jobGroup.getPriority();
         PriorityStrategy reason = null;
         if (jobGroup.isUsePriorityStrategies()) {
-            priorityCallback.addDecisionLog(2, "Evaluating strategies ...");
+            priorityCallback.addDecisionLog(2, DecisionLogMessage.EVALUATING_STRATEGIES);
             List<JobGroup.PriorityStrategyHolder> priorityStrategies = jobGroup.getPriorityStrategies();
             for (JobGroup.PriorityStrategyHolder priorityStrategy : priorityStrategies) {
                 PriorityStrategy strategy = priorityStrategy.getPriorityStrategy();
-                priorityCallback.addDecisionLog(
-                        3, "Evaluating strategy [" + strategy.getDescriptor().getDisplayName() + "] ...");
-                if (strategy.isApplicable(item)) {
-                    priorityCallback.addDecisionLog(4, "Strategy is applicable");
-                    int foundPriority = strategy.getPriority(item);
-                    if (foundPriority > 0
-                            && foundPriority
-                                    <= PrioritySorterConfiguration.get()
-                                            .getStrategy()
-                                            .getNumberOfPriorities()) {
+                priorityCallback.addDecisionLog(3, DecisionLogMessage.EVALUATING_STRATEGY, strategy);
+                int foundPriority = strategy.getPriorityIfApplicable(item);
+                if (foundPriority != PriorityStrategy.NOT_APPLICABLE) {
+                    priorityCallback.addDecisionLog(4, DecisionLogMessage.STRATEGY_APPLICABLE);
+                    if (foundPriority > 0 && foundPriority <= sorterStrategy.getNumberOfPriorities()) {
                         priority = foundPriority;
                         reason = strategy;
                         break;
@@ -322,10 +466,10 @@ public class PriorityConfiguration extends GlobalConfiguration implements RootAc
             }
         }
         if (reason == null) {
-            priorityCallback.addDecisionLog(2, "No applicable strategy - Using JobGroup default");
+            priorityCallback.addDecisionLog(2, DecisionLogMessage.NO_APPLICABLE_STRATEGY);
         }
         if (priority == PriorityCalculationsUtil.getUseDefaultPriorityPriority()) {
-            priority = PrioritySorterConfiguration.get().getStrategy().getDefaultPriority();
+            priority = sorterStrategy.getDefaultPriority();
         }
         return priorityCallback.setPrioritySelection(priority, jobGroup.getId(), reason);
     }
@@ -333,4 +477,62 @@ public class PriorityConfiguration extends GlobalConfiguration implements RootAc
     public static PriorityConfiguration get() {
         return GlobalConfiguration.all().get(PriorityConfiguration.class);
     }
+
+    /**
+     * Forgets the JobGroups of jobs that are created, moved or deleted.
+     */
+    @Extension
+    public static class JobGroupCacheItemListener extends ItemListener {
+
+        @Override
+        public void onCreated(Item item) {
+            onChanged(item, item.getFullName());
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            onChanged(item, item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            onChanged(item, oldFullName);
+            onChanged(item, newFullName);
+        }
+
+        @Override
+        public void onUpdated(Item item) {
+            onChanged(item, item.getFullName());
+        }
+
+        private void onChanged(Item item, String fullName) {
+            PriorityConfiguration configuration = PriorityConfiguration.get();
+            if (configuration == null) {
+                return;
+            }
+            configuration.invalidateJobGroupCache(item, fullName);
+        }
+    }
+
+    /**
+     * Forgets the JobGroups when a job, a folder or the views are saved.
+     */
+    @Extension
+    public static class JobGroupCacheSaveableListener extends SaveableListener {
+
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            PriorityConfiguration configuration = PriorityConfiguration.get();
+            if (configuration == null) {
+                return;
+            }
+            if (o instanceof Item item) {
+                // The views of folders are saved with the folder
+                configuration.invalidateJobGroupCache(item, item.getFullName());
+            } else if (o instanceof Jenkins) {
+                // The views of Jenkins are saved with Jenkins
+                configuration.invalidateJobGroupCache();
+            }
+        }
+    }
 }
@@ -3,7 +3,7 @@ package jenkins.advancedqueue;
 import hudson.matrix.MatrixConfiguration;
 import hudson.matrix.MatrixProject;
 import hudson.model.Job;
-import jenkins.advancedqueue.sorter.ItemInfo;
+import jenkins.advancedqueue.sorter.JobPriorityInfo;
 import jenkins.advancedqueue.sorter.QueueItemCache;
 
 class PriorityConfigurationMatrixHelper {
@@ -18,17 +18,18 @@ class PriorityConfigurationMatrixHelper {
         // For MatrixConfiguration use the latest assigned Priority from the
         // MatrixProject
         MatrixProject matrixProject = matrixConfiguration.getParent();
-        priorityCallback.addDecisionLog(0, "Job is MatrixConfiguration [" + matrixProject.getName() + "] ...");
-        ItemInfo itemInfo = QueueItemCache.get().getItem(matrixProject.getName());
+        priorityCallback.addDecisionLog(0, DecisionLogMessage.MATRIX_CONFIGURATION, matrixProject.getName());
+        JobPriorityInfo jobPriorityInfo = QueueItemCache.get().getJobPriorityInfo(matrixProject.getName());
         // Can be null (for example) at startup when the MatrixBuild got
         // lost (was running at restart)
-        if (itemInfo != null) {
-            priorityCallback.addDecisionLog(
-                    0, "MatrixProject found in cache, using priority from queue-item [" + itemInfo.getItemId() + "]");
+        if (jobPriorityInfo != null) {
+            priorityCallback.addDecisionLog(0, DecisionLogMessage.MATRIX_PROJECT_FOUND, jobPriorityInfo.getItemId());
             return priorityCallback.setPrioritySelection(
-                    itemInfo.getPriority(), itemInfo.getJobGroupId(), itemInfo.getPriorityStrategy());
+                    jobPriorityInfo.getPriority(),
+                    jobPriorityInfo.getJobGroupId(),
+                    jobPriorityInfo.getPriorityStrategy());
         }
-        priorityCallback.addDecisionLog(0, "MatrixProject not found in cache, assigning global default priority");
+        priorityCallback.addDecisionLog(0, DecisionLogMessage.MATRIX_PROJECT_NOT_FOUND);
         return priorityCallback.setPrioritySelection(
                 PrioritySorterConfiguration.get().getStrategy().getDefaultPriority());
     }
@@ -6,7 +6,7 @@ import hudson.model.Job;
 import hudson.model.Queue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import jenkins.advancedqueue.sorter.ItemInfo;
+import jenkins.advancedqueue.sorter.JobPriorityInfo;
 import jenkins.advancedqueue.sorter.QueueItemCache;
 import jenkins.advancedqueue.sorter.strategy.MultiBucketStrategy;
 import jenkins.model.Jenkins;
@@ -26,9 +26,9 @@ class PriorityConfigurationPlaceholderTaskHelper {
             @NonNull PriorityConfigurationCallback priorityCallback) {
         Queue.Task ownerTask = task.getOwnerTask();
         if (ownerTask instanceof Job<?, ?> job) {
-            ItemInfo itemInfo = QueueItemCache.get().getItem(job.getName());
-            if (itemInfo != null) {
-                priorityCallback.setPrioritySelection(itemInfo.getPriority());
+            JobPriorityInfo jobPriorityInfo = QueueItemCache.get().getJobPriorityInfo(job.getName());
+            if (jobPriorityInfo != null) {
+                priorityCallback.setPrioritySelection(jobPriorityInfo.getPriority());
             } else {
                 if (PrioritySorterConfiguration.get() != null
                         && PrioritySorterConfiguration.get().getStrategy() != null) {
@@ -25,24 +25,18 @@ package jenkins.advancedqueue;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.Extension;
-import hudson.model.Job;
-import hudson.security.ACL;
-import hudson.security.ACLContext;
 import hudson.util.FormValidation;
 import hudson.util.ListBoxModel;
-import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import jenkins.advancedqueue.JobGroup.PriorityStrategyHolder;
-import jenkins.advancedqueue.priority.strategy.PriorityJobProperty;
+import jenkins.advancedqueue.sorter.QueueItemCache;
 import jenkins.advancedqueue.sorter.SorterStrategy;
 import jenkins.advancedqueue.sorter.SorterStrategyDescriptor;
 import jenkins.advancedqueue.sorter.strategy.AbsoluteStrategy;
 import jenkins.advancedqueue.sorter.strategy.MultiBucketStrategy;
 import jenkins.advancedqueue.util.PrioritySorterUtil;
 import jenkins.model.GlobalConfiguration;
-import jenkins.model.Jenkins;
 import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 
@@ -53,7 +47,6 @@ import org.kohsuke.stapler.QueryParameter;
 @Extension
 public class PrioritySorterConfiguration extends GlobalConfiguration {
 
-    private static final Logger LOGGER = Logger.getLogger(PrioritySorterConfiguration.class.getName());
     private static final SorterStrategy DEFAULT_STRATEGY =
             new AbsoluteStrategy(MultiBucketStrategy.DEFAULT_PRIORITIES_NUMBER, MultiBucketStrategy.DEFAULT_PRIORITY);
 
@@ -68,6 +61,19 @@ public class PrioritySorterConfiguration extends GlobalConfiguration {
 
     private SorterStrategy strategy;
 
+    private int jobCacheSize = QueueItemCache.DEFAULT_JOB_CACHE_SIZE;
+
+    private int jobCacheRetentionHours = QueueItemCache.DEFAULT_JOB_CACHE_RETENTION_HOURS;
+
+    private int reservedExecutorsPercentage = 0;
+
+    private int reservedPriorities = 1;
+
+    // The number of priorities of every scale epoch, unset until the number of priorities first changes, replaced
+    // instead of changed so that it is read without locking. Every number of priorities has one epoch, so it only
+    // grows with the number of priorities that have been used
+    private volatile List<Integer> numberOfPrioritiesByEpoch;
+
     public PrioritySorterConfiguration() {
         /* Initalize strategy to prevent spotbugs uninitialized field warning */
         strategy = DEFAULT_STRATEGY;
@@ -79,6 +85,8 @@ public class PrioritySorterConfiguration extends GlobalConfiguration {
         prioritySorterConfiguration.strategy = DEFAULT_STRATEGY; // TODO: replace with class ref
         prioritySorterConfiguration.allowPriorityOnJobs = false;
         prioritySorterConfiguration.load();
+        prioritySorterConfiguration.configureJobCache();
+        prioritySorterConfiguration.addScaleEpoch(prioritySorterConfiguration.strategy.getNumberOfPriorities());
     }
 
     public boolean getOnlyAdminsMayEditPriorityConfiguration() {
@@ -89,6 +97,44 @@ public class PrioritySorterConfiguration extends GlobalConfiguration {
         return strategy;
     }
 
+    /**
+     * @return the maximum number of Jobs for which the priority of the last queued item is kept
+     */
+    public int getJobCacheSize() {
+        return jobCacheSize;
+    }
+
+    /**
+     * @return the number of hours the priority of the last queued item of a Job is kept
+     */
+    public int getJobCacheRetentionHours() {
+        return jobCacheRetentionHours;
+    }
+
+    /**
+     * @return the percentage of the executors kept for the highest priorities, 0 to not keep any
+     */
+    public int getReservedExecutorsPercentage() {
+        return reservedExecutorsPercentage;
+    }
+
+    /**
+     * @return the number of priorities, counted from the highest, the reserved executors are kept for
+     */
+    public int getReservedPriorities() {
+        return reservedPriorities;
+    }
+
+    private void configureJobCache() {
+        if (jobCacheSize <= 0) {
+            jobCacheSize = QueueItemCache.DEFAULT_JOB_CACHE_SIZE;
+        }
+        if (jobCacheRetentionHours <= 0) {
+            jobCacheRetentionHours = QueueItemCache.DEFAULT_JOB_CACHE_RETENTION_HOURS;
+        }
+        QueueItemCache.get().configureJobCache(jobCacheSize, jobCacheRetentionHours);
+    }
+
     public ListBoxModel doFillStrategyItems() {
         ListBoxModel strategies = new ListBoxModel();
         List<SorterStrategyDescriptor> values = SorterStrategy.getAllSorterStrategies();
@@ -123,43 +169,94 @@ public class PrioritySorterConfiguration extends GlobalConfiguration {
         return FormValidation.ok();
     }
 
-    private void updatePriorities(int prevNumberOfPriorities) {
-        // Shouldn't really by a permission problem when getting here but
-        // to be on the safe side
-        try (ACLContext saveCtx = ACL.as(ACL.SYSTEM)) {
-            @SuppressWarnings("rawtypes")
-            List<Job> allJobs = Jenkins.get().getAllItems(Job.class);
-            for (Job<?, ?> job : allJobs) {
-                try {
-                    // Scale any priority on the Job
-                    PriorityJobProperty priorityProperty = job.getProperty(PriorityJobProperty.class);
-                    if (priorityProperty != null && priorityProperty.getUseJobPriority()) {
-                        int newPriority = PriorityCalculationsUtil.scale(
-                                prevNumberOfPriorities, strategy.getNumberOfPriorities(), priorityProperty.priority);
-                        if (newPriority != priorityProperty.getPriority()) {
-                            job.removeProperty(priorityProperty);
-                            job.addProperty(new PriorityJobProperty(priorityProperty.getUseJobPriority(), newPriority));
-                            job.save();
-                        }
-                    }
-                } catch (IOException e) {
-                    LOGGER.log(Level.WARNING, "Failed to update Advanced Job Priority To {0}", job.getName());
-                }
+    public FormValidation doCheckJobCacheSize(@QueryParameter String value) {
+        return checkPositiveNumber(value);
+    }
+
+    public FormValidation doCheckJobCacheRetentionHours(@QueryParameter String value) {
+        return checkPositiveNumber(value);
+    }
+
+    public FormValidation doCheckReservedExecutorsPercentage(@QueryParameter String value) {
+        try {
+            int intValue = Integer.parseInt(value);
+            if (intValue >= 0 && intValue <= 100) {
+                return FormValidation.ok();
             }
-            //
-            List<JobGroup> jobGroups = PriorityConfiguration.get().getJobGroups();
-            for (JobGroup jobGroup : jobGroups) {
-                jobGroup.setPriority(PriorityCalculationsUtil.scale(
-                        prevNumberOfPriorities, strategy.getNumberOfPriorities(), jobGroup.getPriority()));
-                List<PriorityStrategyHolder> priorityStrategies = jobGroup.getPriorityStrategies();
-                for (PriorityStrategyHolder priorityStrategyHolder : priorityStrategies) {
-                    priorityStrategyHolder
-                            .getPriorityStrategy()
-                            .numberPrioritiesUpdates(prevNumberOfPriorities, strategy.getNumberOfPriorities());
-                }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        return FormValidation.error(Messages.PrioritySorterConfiguration_enterPercentageRequestMessage());
+    }
+
+    public FormValidation doCheckReservedPriorities(@QueryParameter String value) {
+        return checkPositiveNumber(value);
+    }
+
+    private FormValidation checkPositiveNumber(String value) {
+        try {
+            if (Integer.parseInt(value) > 0) {
+                return FormValidation.ok();
             }
-            PriorityConfiguration.get().save();
+        } catch (NumberFormatException e) {
+            // Reported below
         }
+        return FormValidation.error(Messages.PrioritySorterConfiguration_enterValueRequestMessage());
+    }
+
+    /**
+     * Every number of priorities that has been used has a scale epoch, a new one is added when the number of
+     * priorities changes to one not used before. The priorities set on the Jobs are kept with the epoch they were
+     * set under and scaled when read, so that the Jobs need not be saved again.
+     *
+     * @return the current scale epoch
+     */
+    public int getScaleEpoch() {
+        List<Integer> epochs = numberOfPrioritiesByEpoch;
+        if (epochs == null) {
+            return 0;
+        }
+        return Math.max(0, epochs.indexOf(strategy.getNumberOfPriorities()));
+    }
+
+    /**
+     * @param scaleEpoch a scale epoch
+     * @return the number of priorities of the epoch, the current number of priorities for an unknown epoch
+     */
+    public int getNumberOfPriorities(int scaleEpoch) {
+        List<Integer> epochs = numberOfPrioritiesByEpoch;
+        if (epochs == null || scaleEpoch < 0 || scaleEpoch >= epochs.size()) {
+            return strategy.getNumberOfPriorities();
+        }
+        return epochs.get(scaleEpoch);
+    }
+
+    /**
+     * Adds the scale epoch of a number of priorities, unless it already has one. Nothing is added before the number
+     * of priorities first changes, the priorities set so far are then all on the first epoch.
+     */
+    private void addScaleEpoch(int numberOfPriorities) {
+        List<Integer> epochs = numberOfPrioritiesByEpoch;
+        if (epochs != null && !epochs.contains(numberOfPriorities)) {
+            List<Integer> nextEpochs = new ArrayList<>(epochs);
+            nextEpochs.add(numberOfPriorities);
+            numberOfPrioritiesByEpoch = nextEpochs;
+        }
+    }
+
+    private void updatePriorities(int prevNumberOfPriorities) {
+        List<JobGroup> jobGroups = PriorityConfiguration.get().getJobGroups();
+        for (JobGroup jobGroup : jobGroups) {
+            jobGroup.setPriority(PriorityCalculationsUtil.scale(
+                    prevNumberOfPriorities, strategy.getNumberOfPriorities(), jobGroup.getPriority()));
+            List<PriorityStrategyHolder> priorityStrategies = jobGroup.getPriorityStrategies();
+            for (PriorityStrategyHolder priorityStrategyHolder : priorityStrategies) {
+                priorityStrategyHolder
+                        .getPriorityStrategy()
+                        .numberPrioritiesUpdates(prevNumberOfPriorities, strategy.getNumberOfPriorities());
+            }
+        }
+        PriorityConfiguration.get().save();
     }
 
     @DataBoundSetter
@@ -168,10 +265,47 @@ public class PrioritySorterConfiguration extends GlobalConfiguration {
         save();
     }
 
+    @DataBoundSetter
+    public void setJobCacheSize(int jobCacheSize) {
+        this.jobCacheSize = jobCacheSize;
+        configureJobCache();
+        save();
+    }
+
+    @DataBoundSetter
+    public void setJobCacheRetentionHours(int jobCacheRetentionHours) {
+        this.jobCacheRetentionHours = jobCacheRetentionHours;
+        configureJobCache();
+        save();
+    }
+
+    @DataBoundSetter
+    public void setReservedExecutorsPercentage(int reservedExecutorsPercentage) {
+        this.reservedExecutorsPercentage = Math.max(0, Math.min(100, reservedExecutorsPercentage));
+        save();
+    }
+
+    @DataBoundSetter
+    public void setReservedPriorities(int reservedPriorities) {
+        this.reservedPriorities = Math.max(1, reservedPriorities);
+        save();
+    }
+
     @DataBoundSetter
     public void setStrategy(SorterStrategy strategy) {
-        updatePriorities(strategy.getNumberOfPriorities());
+        int prevNumberOfPriorities = this.strategy.getNumberOfPriorities();
+        boolean changed = strategy.getNumberOfPriorities() != prevNumberOfPriorities;
+        if (changed) {
+            // Both epochs are there before the strategy is swapped, so the current one is always found
+            if (numberOfPrioritiesByEpoch == null) {
+                numberOfPrioritiesByEpoch = new ArrayList<>(List.of(prevNumberOfPriorities));
+            }
+            addScaleEpoch(strategy.getNumberOfPriorities());
+        }
         this.strategy = strategy;
+        if (changed) {
+            updatePriorities(prevNumberOfPriorities);
+        }
         save();
     }
 
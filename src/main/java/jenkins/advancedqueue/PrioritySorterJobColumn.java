@@ -25,7 +25,7 @@ import hudson.Extension;
 import hudson.model.Job;
 import hudson.views.ListViewColumn;
 import hudson.views.ListViewColumnDescriptor;
-import jenkins.advancedqueue.sorter.ItemInfo;
+import jenkins.advancedqueue.sorter.JobPriorityInfo;
 import jenkins.advancedqueue.sorter.QueueItemCache;
 import org.kohsuke.stapler.DataBoundConstructor;
 
@@ -39,11 +39,11 @@ public class PrioritySorterJobColumn extends ListViewColumn {
     public PrioritySorterJobColumn() {}
 
     public String getPriority(final Job<?, ?> job) {
-        ItemInfo itemInfo = QueueItemCache.get().getItem(job.getName());
-        if (itemInfo == null) {
+        JobPriorityInfo jobPriorityInfo = QueueItemCache.get().getJobPriorityInfo(job.getName());
+        if (jobPriorityInfo == null) {
             return "Pending"; // You need to run a Job
         }
-        return Integer.toString(itemInfo.getPriority());
+        return Integer.toString(jobPriorityInfo.getPriority());
     }
 
     @Extension
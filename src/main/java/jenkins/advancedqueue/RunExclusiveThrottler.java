@@ -1,5 +1,6 @@
 package jenkins.advancedqueue;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import hudson.Extension;
 import hudson.model.Queue.Item;
 import hudson.model.Run;
@@ -7,18 +8,28 @@ import hudson.model.TaskListener;
 import hudson.model.listeners.RunListener;
 import hudson.model.queue.CauseOfBlockage;
 import hudson.model.queue.QueueTaskDispatcher;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import jenkins.advancedqueue.priority.PriorityStrategy;
-import jenkins.advancedqueue.sorter.ItemInfo;
-import jenkins.advancedqueue.sorter.QueueItemCache;
+import jenkins.advancedqueue.sorter.PrioritySnapshot;
 
+/**
+ * Keeps track of the runs of JobGroups that run exclusive. While any of them runs only items of the JobGroups
+ * with a running exclusive run are dispatched.
+ * <p>
+ * Runs are tracked by their full name and number and JobGroups by the number of their exclusive runs, so several
+ * exclusive JobGroups can run at the same time. The dispatcher is called for every buildable item on every
+ * pass, when nothing runs exclusive it only reads one counter.
+ */
 public class RunExclusiveThrottler {
 
-    private static final List<String> exclusiveJobs = Collections.synchronizedList(new ArrayList<>());
-    private static int exclusiveJobGroupId = -1;
-    private static String exclusiveJobName = "";
+    private static final RunExclusiveThrottler runExclusiveThrottler = new RunExclusiveThrottler();
+
+    public static RunExclusiveThrottler get() {
+        return runExclusiveThrottler;
+    }
 
     static PriorityConfigurationCallback dummyCallback = new PriorityConfigurationCallback() {
 
@@ -41,6 +52,71 @@ public class RunExclusiveThrottler {
         }
     };
 
+    /**
+     * A running exclusive run, with the reason items of other JobGroups are blocked while it runs.
+     */
+    private record ExclusiveRun(int jobGroupId, RunExclusiveMode blockage) {}
+
+    // The number of exclusive runs, read first so that nothing else is looked at when it is zero
+    private final AtomicInteger exclusiveRunCount = new AtomicInteger();
+    // The exclusive runs by their full name and number
+    private final Map<String, ExclusiveRun> exclusiveRuns = new ConcurrentHashMap<>();
+    // The number of exclusive runs of every JobGroup that has any
+    private final Map<Integer, Integer> jobGroupId2count = new ConcurrentHashMap<>();
+    // The reason given for blocked items, set before the first exclusive run is counted
+    private volatile RunExclusiveMode blockage;
+
+    /* package-protected for testing */
+    RunExclusiveThrottler() {}
+
+    /* package-protected for testing */
+    void onStarted(Run<?, ?> run, int jobGroupId) {
+        String key = run.getExternalizableId();
+        RunExclusiveMode runBlockage = new RunExclusiveMode(run.getParent().getFullName());
+        if (exclusiveRuns.putIfAbsent(key, new ExclusiveRun(jobGroupId, runBlockage)) != null) {
+            return;
+        }
+        jobGroupId2count.merge(jobGroupId, 1, Integer::sum);
+        blockage = runBlockage;
+        // Counted last so that the dispatcher finds the JobGroup as soon as it sees the run
+        exclusiveRunCount.incrementAndGet();
+    }
+
+    /* package-protected for testing */
+    void onCompleted(Run<?, ?> run) {
+        ExclusiveRun exclusiveRun = exclusiveRuns.remove(run.getExternalizableId());
+        if (exclusiveRun == null) {
+            return;
+        }
+        exclusiveRunCount.decrementAndGet();
+        jobGroupId2count.computeIfPresent(exclusiveRun.jobGroupId(), (id, count) -> count > 1 ? count - 1 : null);
+        if (blockage == exclusiveRun.blockage()) {
+            // Name one of the runs still running, the last one is kept as it is not read when none run
+            Iterator<ExclusiveRun> remaining = exclusiveRuns.values().iterator();
+            if (remaining.hasNext()) {
+                blockage = remaining.next().blockage();
+            }
+        }
+    }
+
+    /**
+     * Checks if an item of a JobGroup can run with the exclusive runs running now.
+     *
+     * @param jobGroupId the id of the JobGroup of the item, <code>null</code> if the item is not known
+     * @return the reason the item is blocked or <code>null</code> if it can run
+     */
+    @CheckForNull
+    CauseOfBlockage canRun(@CheckForNull Integer jobGroupId) {
+        if (exclusiveRunCount.get() == 0 || jobGroupId != null && jobGroupId2count.containsKey(jobGroupId)) {
+            return null;
+        }
+        return blockage;
+    }
+
+    boolean isAnyRunExclusive() {
+        return exclusiveRunCount.get() > 0;
+    }
+
     @Extension
     public static class RunExclusiveRunListener extends RunListener<Run> {
 
@@ -48,23 +124,27 @@ public class RunExclusiveThrottler {
         public void onStarted(Run r, TaskListener listener) {
             JobGroup jobGroup = PriorityConfiguration.get().getJobGroup(dummyCallback, r.getParent());
             if (jobGroup != null && jobGroup.isRunExclusive()) {
-                exclusiveJobGroupId = jobGroup.getId();
-                exclusiveJobName = r.getParent().getName();
-                exclusiveJobs.add(exclusiveJobName);
+                RunExclusiveThrottler.get().onStarted(r, jobGroup.getId());
             }
         }
 
         @Override
         public void onCompleted(Run r, TaskListener listener) {
-            exclusiveJobs.remove(r.getParent().getName());
+            RunExclusiveThrottler.get().onCompleted(r);
         }
     }
 
     private static class RunExclusiveMode extends CauseOfBlockage {
 
+        private final String jobName;
+
+        RunExclusiveMode(String jobName) {
+            this.jobName = jobName;
+        }
+
         @Override
         public String getShortDescription() {
-            return "Run Exclusive (" + exclusiveJobName + ")";
+            return "Run Exclusive (" + jobName + ")";
         }
     }
 
@@ -73,13 +153,12 @@ public class RunExclusiveThrottler {
 
         @Override
         public CauseOfBlockage canRun(Item item) {
-            if (exclusiveJobs.size() > 0) {
-                ItemInfo info = QueueItemCache.get().getItem(item.getId());
-                if (info == null || info.getJobGroupId() != exclusiveJobGroupId) {
-                    return new RunExclusiveMode();
-                }
+            RunExclusiveThrottler throttler = RunExclusiveThrottler.get();
+            if (!throttler.isAnyRunExclusive()) {
+                return null;
             }
-            return null;
+            int jobGroupId = PrioritySnapshot.get().getJobGroupId(item.getId());
+            return throttler.canRun(jobGroupId != PrioritySnapshot.UNKNOWN ? jobGroupId : null);
         }
     }
 }
@@ -62,6 +62,17 @@ public abstract class JobInclusionStrategy implements ExtensionPoint, Describabl
 
     public abstract boolean contains(DecisionLogger decisionLogger, Job<?, ?> job);
 
+    /**
+     * Tells if {@link #contains(DecisionLogger, Job)} needs to run as {@link hudson.security.ACL#SYSTEM2}, for
+     * example to see all the jobs of a view. Strategies that only look at the job and its parents can return
+     * <code>false</code> so that the priority of an item is found without changing the security context.
+     *
+     * @return <code>true</code> if the strategy needs elevated permissions, the default
+     */
+    public boolean requiresElevatedPermissions() {
+        return true;
+    }
+
     public static DescriptorExtensionList<JobInclusionStrategy, Descriptor<JobInclusionStrategy>> all() {
         return Jenkins.get().getDescriptorList(JobInclusionStrategy.class);
     }
@@ -53,4 +53,9 @@ public class AllJobsJobInclusionStrategy extends JobInclusionStrategy {
     public boolean contains(DecisionLogger decisionLogger, Job<?, ?> job) {
         return true;
     }
+
+    @Override
+    public boolean requiresElevatedPermissions() {
+        return false;
+    }
 }
@@ -35,6 +35,8 @@ import jenkins.model.Jenkins;
 import org.kohsuke.stapler.DataBoundConstructor;
 
 /**
+ * Includes the jobs in a folder and its sub folders, the folder is matched by path segment.
+ *
  * @author Magnus Sandberg
  * @since 3.0
  */
@@ -72,6 +74,39 @@ public class FolderBasedJobInclusionStrategy extends JobInclusionStrategy {
 
     @Override
     public boolean contains(DecisionLogger decisionLogger, Job<?, ?> job) {
-        return job.getFullName().startsWith(folderName);
+        return isInFolder(job.getFullName(), folderName);
+    }
+
+    /**
+     * Checks if an item is in a folder or one of its sub folders.
+     *
+     * @param fullName the full name of the item
+     * @param folderName the full name of the folder, the empty name contains all items
+     * @return <code>true</code> if the item is below the folder
+     */
+    static boolean isInFolder(String fullName, String folderName) {
+        if (folderName == null) {
+            return false;
+        }
+        String path = normalizeFolderName(folderName);
+        if (path.isEmpty()) {
+            return true;
+        }
+        return fullName.length() > path.length()
+                && fullName.startsWith(path)
+                && fullName.charAt(path.length()) == '/';
+    }
+
+    static String normalizeFolderName(String folderName) {
+        int end = folderName.length();
+        while (end > 0 && folderName.charAt(end - 1) == '/') {
+            end--;
+        }
+        return folderName.substring(0, end);
+    }
+
+    @Override
+    public boolean requiresElevatedPermissions() {
+        return false;
     }
 }
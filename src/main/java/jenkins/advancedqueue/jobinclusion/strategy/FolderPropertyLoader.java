@@ -27,44 +27,172 @@ import com.cloudbees.hudson.plugins.folder.AbstractFolder;
 import com.cloudbees.hudson.plugins.folder.AbstractFolderProperty;
 import com.cloudbees.hudson.plugins.folder.AbstractFolderPropertyDescriptor;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
 import hudson.model.ItemGroup;
 import hudson.model.Job;
+import hudson.model.Saveable;
 import hudson.model.TopLevelItem;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
 import hudson.util.DescribableList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import jenkins.advancedqueue.DecisionLogMessage;
 import jenkins.advancedqueue.DecisionLogger;
 
 /**
+ * Finds the JobGroup name of a job from the {@link JobInclusionFolderProperty} of the closest folder that enables
+ * one.
+ * <p>
+ * The name a folder passes on to its jobs is remembered by the full name of the folder, so jobs in the same
+ * folder do not climb the parents again. When a folder is moved or deleted, or saved with another JobGroup
+ * setting, the names of that folder and the folders below it are forgotten.
+ *
  * @author Magnus Sandberg
  * @since 3.0
  */
 public class FolderPropertyLoader {
 
+    /**
+     * The JobGroup setting of a folder itself and the JobGroup name it passes on, empty if the folder and its
+     * parents have none.
+     */
+    private record FolderJobGroup(boolean useJobGroup, String ownJobGroupName, Optional<String> jobGroupName) {}
+
+    private static final FolderJobGroup NONE = new FolderJobGroup(false, null, Optional.empty());
+
+    private static final Map<String, FolderJobGroup> folderName2jobGroup = new ConcurrentHashMap<>();
+
+    // Counts the invalidations so that a lookup running at the same time does not put back what was forgotten
+    private static final AtomicLong invalidations = new AtomicLong();
+
     @CheckForNull
     public static String getJobGroupName(DecisionLogger decisionLogger, Job<?, ?> job) {
-        ItemGroup<?> parent = job.getParent();
-        decisionLogger.addDecisionLog(2, "Checking for Cloudbees Folder inclusion ...");
-        while (parent != null) {
-            if (parent instanceof AbstractFolder<?> folder) {
-                decisionLogger.addDecisionLog(3, "Evaluating Folder [" + folder.getFullName() + "] ...");
-                DescribableList<AbstractFolderProperty<?>, AbstractFolderPropertyDescriptor> properties =
-                        folder.getProperties();
-                for (AbstractFolderProperty<?> property : properties) {
-                    if (property instanceof JobInclusionFolderProperty incProperty) {
-                        if (incProperty.isUseJobGroup()) {
-                            String name = incProperty.getJobGroupName();
-                            decisionLogger.addDecisionLog(4, "JobGroup is enabled, with JobGroup [" + name + "] ...");
-                            return name;
-                        }
-                    }
-                }
+        decisionLogger.addDecisionLog(2, DecisionLogMessage.FOLDER_CHECKING);
+        Optional<String> name = getJobGroupName(decisionLogger, job.getParent());
+        if (name.isPresent()) {
+            decisionLogger.addDecisionLog(4, DecisionLogMessage.FOLDER_JOB_GROUP_ENABLED, name.get());
+            return name.get();
+        }
+        decisionLogger.addDecisionLog(2, DecisionLogMessage.FOLDER_NO_MATCH);
+        return null;
+    }
+
+    private static Optional<String> getJobGroupName(DecisionLogger decisionLogger, ItemGroup<?> parent) {
+        if (parent == null) {
+            return Optional.empty();
+        }
+        String folderName = parent.getFullName();
+        FolderJobGroup jobGroup = folderName2jobGroup.get(folderName);
+        if (jobGroup != null) {
+            return jobGroup.jobGroupName();
+        }
+        long invalidationCount = invalidations.get();
+        jobGroup = findJobGroup(decisionLogger, parent);
+        if (invalidationCount == invalidations.get()) {
+            folderName2jobGroup.put(folderName, jobGroup);
+        }
+        return jobGroup.jobGroupName();
+    }
+
+    private static FolderJobGroup findJobGroup(DecisionLogger decisionLogger, ItemGroup<?> parent) {
+        if (parent instanceof AbstractFolder<?> folder) {
+            decisionLogger.addDecisionLog(3, DecisionLogMessage.FOLDER_EVALUATING, folder);
+            JobInclusionFolderProperty property = getEnabledProperty(folder);
+            if (property != null) {
+                String name = property.getJobGroupName();
+                return new FolderJobGroup(true, name, Optional.ofNullable(name));
             }
-            if (parent instanceof TopLevelItem item) {
-                parent = item.getParent();
-            } else {
-                parent = null;
+        }
+        if (parent instanceof TopLevelItem item) {
+            return new FolderJobGroup(false, null, getJobGroupName(decisionLogger, item.getParent()));
+        }
+        return NONE;
+    }
+
+    @CheckForNull
+    private static JobInclusionFolderProperty getEnabledProperty(AbstractFolder<?> folder) {
+        DescribableList<AbstractFolderProperty<?>, AbstractFolderPropertyDescriptor> properties =
+                folder.getProperties();
+        for (AbstractFolderProperty<?> property : properties) {
+            if (property instanceof JobInclusionFolderProperty incProperty) {
+                if (incProperty.isUseJobGroup()) {
+                    return incProperty;
+                }
             }
         }
-        decisionLogger.addDecisionLog(2, "No match ...");
         return null;
     }
+
+    /**
+     * Forgets the JobGroup names found for a folder and the folders below it, as a folder passes its JobGroup on
+     * to all of them.
+     *
+     * @param folderName the full name of the folder
+     */
+    static void invalidate(String folderName) {
+        invalidations.incrementAndGet();
+        String prefix = folderName + "/";
+        folderName2jobGroup.keySet().removeIf(name -> name.equals(folderName) || name.startsWith(prefix));
+    }
+
+    private static void onSaved(Item item) {
+        if (!(item instanceof ItemGroup)) {
+            return;
+        }
+        FolderJobGroup jobGroup = folderName2jobGroup.get(item.getFullName());
+        if (jobGroup == null) {
+            // Not looked up yet, neither were the folders below it
+            return;
+        }
+        JobInclusionFolderProperty property =
+                item instanceof AbstractFolder<?> folder ? getEnabledProperty(folder) : null;
+        boolean useJobGroup = property != null;
+        String ownJobGroupName = useJobGroup ? property.getJobGroupName() : null;
+        if (jobGroup.useJobGroup() != useJobGroup || !Objects.equals(jobGroup.ownJobGroupName(), ownJobGroupName)) {
+            invalidate(item.getFullName());
+        }
+    }
+
+    private static void onRemoved(Item item, String fullName) {
+        if (item instanceof ItemGroup) {
+            invalidate(fullName);
+        }
+    }
+
+    @Extension(optional = true)
+    public static class FolderPropertyItemListener extends ItemListener {
+
+        @Override
+        public void onDeleted(Item item) {
+            onRemoved(item, item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            onRemoved(item, oldFullName);
+            onRemoved(item, newFullName);
+        }
+
+        @Override
+        public void onUpdated(Item item) {
+            onSaved(item);
+        }
+    }
+
+    @Extension(optional = true)
+    public static class FolderPropertySaveableListener extends SaveableListener {
+
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof Item item) {
+                onSaved(item);
+            }
+        }
+    }
 }
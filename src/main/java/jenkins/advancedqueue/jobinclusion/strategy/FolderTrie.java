@@ -0,0 +1,74 @@
+package jenkins.advancedqueue.jobinclusion.strategy;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps folder paths to values, looked up by the full name of a job to find the smallest value of the folders
+ * the job is in. Paths are compared by segment, so a job in <code>team-ab</code> is not in <code>team-a</code>.
+ * <p>
+ * Used to find the first {@link FolderBasedJobInclusionStrategy} of a list that contains a job by walking the
+ * path of the job once instead of comparing it to every folder.
+ */
+public final class FolderTrie {
+
+    public static final int NO_MATCH = -1;
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private int value = NO_MATCH;
+    }
+
+    private final Node root = new Node();
+
+    /**
+     * Adds a folder, a folder that is added more than once keeps the smallest value.
+     *
+     * @param folderName the full name of the folder, the empty name contains all jobs and <code>null</code> none
+     * @param value the value of the folder, not negative
+     */
+    public void put(String folderName, int value) {
+        if (folderName == null) {
+            return;
+        }
+        Node node = root;
+        String path = FolderBasedJobInclusionStrategy.normalizeFolderName(folderName);
+        if (!path.isEmpty()) {
+            for (String segment : path.split("/")) {
+                node = node.children.computeIfAbsent(segment, name -> new Node());
+            }
+        }
+        if (node.value == NO_MATCH || value < node.value) {
+            node.value = value;
+        }
+    }
+
+    /**
+     * Finds the smallest value of the folders that contain a job.
+     *
+     * @param fullName the full name of the job
+     * @return the smallest value or {@link #NO_MATCH} if no folder contains the job
+     */
+    public int firstMatch(String fullName) {
+        Node node = root;
+        int match = node.value;
+        int start = 0;
+        int end;
+        // Only the folders above the job, the last segment is the job itself
+        while ((end = fullName.indexOf('/', start)) >= 0) {
+            node = node.children.get(fullName.substring(start, end));
+            if (node == null) {
+                break;
+            }
+            if (node.value != NO_MATCH && (match == NO_MATCH || node.value < match)) {
+                match = node.value;
+            }
+            start = end + 1;
+        }
+        return match;
+    }
+
+    public boolean isEmpty() {
+        return root.value == NO_MATCH && root.children.isEmpty();
+    }
+}
@@ -23,12 +23,14 @@
  */
 package jenkins.advancedqueue.jobinclusion.strategy;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import hudson.Extension;
 import hudson.Plugin;
 import hudson.model.Descriptor;
 import hudson.model.Job;
 import hudson.util.ListBoxModel;
 import java.util.List;
+import jenkins.advancedqueue.DecisionLogMessage;
 import jenkins.advancedqueue.DecisionLogger;
 import jenkins.advancedqueue.JobGroup;
 import jenkins.advancedqueue.PriorityConfiguration;
@@ -91,15 +93,14 @@ public class PropertyBasedJobInclusionStrategy extends JobInclusionStrategy {
     @Override
     public boolean contains(DecisionLogger decisionLogger, Job<?, ?> job) {
         JobInclusionJobProperty property = job.getProperty(JobInclusionJobProperty.class);
-        decisionLogger.addDecisionLog(2, "Checking for Job Property inclusion for [" + name + "]...");
+        decisionLogger.addDecisionLog(2, DecisionLogMessage.PROPERTY_CHECKING, name);
         if (property != null && property.isUseJobGroup()) {
-            decisionLogger.addDecisionLog(
-                    3, "JobGroup is enabled on job, with JobGroup [" + property.getJobGroupName() + "] ...");
+            decisionLogger.addDecisionLog(3, DecisionLogMessage.PROPERTY_JOB_GROUP_ENABLED, property.getJobGroupName());
             boolean match = name.equals(property.getJobGroupName());
             if (match) {
-                decisionLogger.addDecisionLog(3, "Job is included in JobGroup ...");
+                decisionLogger.addDecisionLog(3, DecisionLogMessage.JOB_INCLUDED);
             } else {
-                decisionLogger.addDecisionLog(3, "Job is not included in JobGroup ...");
+                decisionLogger.addDecisionLog(3, DecisionLogMessage.JOB_NOT_INCLUDED);
             }
             return match;
         }
@@ -110,9 +111,9 @@ public class PropertyBasedJobInclusionStrategy extends JobInclusionStrategy {
             }
             boolean match = name.equals(jobViewName);
             if (match) {
-                decisionLogger.addDecisionLog(4, "Job is included in JobGroup ...");
+                decisionLogger.addDecisionLog(4, DecisionLogMessage.JOB_INCLUDED);
             } else {
-                decisionLogger.addDecisionLog(4, "Job is not included in JobGroup ...");
+                decisionLogger.addDecisionLog(4, DecisionLogMessage.JOB_NOT_INCLUDED);
             }
             return match;
         } else {
@@ -120,6 +121,28 @@ public class PropertyBasedJobInclusionStrategy extends JobInclusionStrategy {
         }
     }
 
+    /**
+     * Finds the name of the JobGroup a job is marked for, on the job itself or else on its folders. A job is
+     * contained by the strategy with this name.
+     *
+     * @param decisionLogger the decision log of the folder lookup
+     * @param job the job
+     * @return the name of the JobGroup or <code>null</code> if the job is not marked
+     */
+    @CheckForNull
+    public static String getJobGroupName(DecisionLogger decisionLogger, Job<?, ?> job) {
+        JobInclusionJobProperty property = job.getProperty(JobInclusionJobProperty.class);
+        if (property != null && property.isUseJobGroup()) {
+            return property.getJobGroupName();
+        }
+        Descriptor<?> descriptor = Jenkins.get().getDescriptor(PropertyBasedJobInclusionStrategy.class);
+        if (descriptor instanceof PropertyBasedJobInclusionStrategyDescriptor propertyDescriptor
+                && propertyDescriptor.cloudbeesFolders) {
+            return FolderPropertyLoader.getJobGroupName(decisionLogger, job);
+        }
+        return null;
+    }
+
     public static ListBoxModel getPropertyBasesJobGroups() {
         List<JobGroup> jobGroups = PriorityConfiguration.get().getJobGroups();
         ListBoxModel strategies = new ListBoxModel();
@@ -131,4 +154,9 @@ public class PropertyBasedJobInclusionStrategy extends JobInclusionStrategy {
         }
         return strategies;
     }
+
+    @Override
+    public boolean requiresElevatedPermissions() {
+        return false;
+    }
 }
@@ -23,6 +23,7 @@
  */
 package jenkins.advancedqueue.jobinclusion.strategy;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import hudson.Extension;
 import hudson.model.Job;
 import hudson.model.TopLevelItem;
@@ -35,6 +36,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
+import jenkins.advancedqueue.DecisionLogMessage;
 import jenkins.advancedqueue.DecisionLogger;
 import jenkins.advancedqueue.jobinclusion.JobInclusionStrategy;
 import jenkins.model.Jenkins;
@@ -43,6 +45,9 @@ import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 
 /**
+ * The job filter is compiled when it is configured or loaded, an invalid filter is logged then and matches
+ * no jobs. Which jobs are in the view is remembered by the {@link ViewMembershipIndex}.
+ *
  * @author Magnus Sandberg
  * @since 3.0
  */
@@ -103,9 +108,18 @@ public class ViewBasedJobInclusionStrategy extends JobInclusionStrategy {
 
     private String jobPattern = ".*";
 
+    // The compiled jobPattern, null if the pattern is invalid
+    private transient Pattern compiledJobPattern;
+
     @DataBoundConstructor
     public ViewBasedJobInclusionStrategy(String viewName) {
         this.viewName = viewName;
+        compileJobPattern();
+    }
+
+    protected Object readResolve() {
+        compileJobPattern();
+        return this;
     }
 
     public String getViewName() {
@@ -126,6 +140,7 @@ public class ViewBasedJobInclusionStrategy extends JobInclusionStrategy {
         if (this.useJobFilter) {
             if (jobFilter != null) {
                 this.jobPattern = jobFilter.jobPattern;
+                compileJobPattern();
             } else {
                 LOGGER.log(Level.SEVERE, "Ignoring null job filter for view ''{0}''", viewName);
             }
@@ -140,6 +155,27 @@ public class ViewBasedJobInclusionStrategy extends JobInclusionStrategy {
     @DataBoundSetter
     public void setJobPattern(String jobPattern) {
         this.jobPattern = jobPattern;
+        compileJobPattern();
+    }
+
+    private void compileJobPattern() {
+        compiledJobPattern = compile(viewName, jobPattern);
+    }
+
+    @CheckForNull
+    private static Pattern compile(String viewName, String jobPattern) {
+        if (jobPattern == null) {
+            return null;
+        }
+        try {
+            return Pattern.compile(jobPattern);
+        } catch (PatternSyntaxException e) {
+            LOGGER.log(
+                    Level.WARNING,
+                    "Invalid job filter ''{0}'' for view ''{1}'', no jobs will match: {2}",
+                    new Object[] {jobPattern, viewName, e.getDescription()});
+            return null;
+        }
     }
 
     private View getView() {
@@ -166,26 +202,26 @@ public class ViewBasedJobInclusionStrategy extends JobInclusionStrategy {
 
     @Override
     public boolean contains(DecisionLogger decisionLogger, Job<?, ?> job) {
-        if (isJobInView(job, getView())) {
+        if (isJobInView(job)) {
             if (!isUseJobFilter() || getJobPattern().trim().isEmpty()) {
-                decisionLogger.addDecisionLog(2, "Not using filter ...");
+                decisionLogger.addDecisionLog(2, DecisionLogMessage.VIEW_NOT_USING_FILTER);
                 return true;
             } else {
-                decisionLogger.addDecisionLog(2, "Using filter ...");
+                decisionLogger.addDecisionLog(2, DecisionLogMessage.VIEW_USING_FILTER);
                 // So filtering is on - use the priority if there's
                 // a match
-                try {
-                    if (job.getName().matches(getJobPattern())) {
-                        decisionLogger.addDecisionLog(3, "Job is matching the filter ...");
-                        return true;
-                    } else {
-                        decisionLogger.addDecisionLog(3, "Job is not matching the filter ...");
-                        return false;
-                    }
-                } catch (PatternSyntaxException e) {
+                Pattern pattern = compiledJobPattern;
+                if (pattern == null) {
                     // If the pattern is broken treat this a non
                     // match
-                    decisionLogger.addDecisionLog(3, "Filter has syntax error");
+                    decisionLogger.addDecisionLog(3, DecisionLogMessage.VIEW_FILTER_SYNTAX_ERROR);
+                    return false;
+                }
+                if (pattern.matcher(job.getName()).matches()) {
+                    decisionLogger.addDecisionLog(3, DecisionLogMessage.VIEW_JOB_MATCHING_FILTER);
+                    return true;
+                } else {
+                    decisionLogger.addDecisionLog(3, DecisionLogMessage.VIEW_JOB_NOT_MATCHING_FILTER);
                     return false;
                 }
             }
@@ -193,6 +229,13 @@ public class ViewBasedJobInclusionStrategy extends JobInclusionStrategy {
         return false;
     }
 
+    private boolean isJobInView(Job<?, ?> job) {
+        if (!ViewMembershipIndex.ENABLED) {
+            return isJobInView(job, getView());
+        }
+        return ViewMembershipIndex.get().contains(viewName, job, viewPath -> getView(), this::isJobInView);
+    }
+
     private boolean isJobInView(Job<?, ?> job, View view) {
         // First do a simple test using contains
         if (view.contains((TopLevelItem) job)) {
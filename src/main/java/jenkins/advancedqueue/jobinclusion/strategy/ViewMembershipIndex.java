@@ -0,0 +1,174 @@
+package jenkins.advancedqueue.jobinclusion.strategy;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Saveable;
+import hudson.model.View;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+/**
+ * Remembers which jobs are in the views used by {@link ViewBasedJobInclusionStrategy}, so a view is evaluated once
+ * per job. Nested and sectioned views are expensive to evaluate, a list view with a regular expression filters all
+ * items of Jenkins for every evaluation.
+ * <p>
+ * The index is keyed on the view name and the full name of the job and is bounded in size, the views themselves
+ * are looked up again when a job is not in the index so a view that is replaced or removed is not held on to. The
+ * entries of a job are dropped when the job changes, found through a second map from the job to its entries so that
+ * a change does not go over the whole index. The whole index is dropped when a folder or Jenkins is saved as that
+ * is where the views are stored.
+ */
+public final class ViewMembershipIndex {
+
+    /**
+     * Can be disabled for views with filters that depend on more than the configuration, like the build status.
+     */
+    static final boolean ENABLED =
+            SystemProperties.getBoolean(ViewMembershipIndex.class.getName() + ".enabled", true);
+
+    private static final int MAXIMUM_SIZE =
+            SystemProperties.getInteger(ViewMembershipIndex.class.getName() + ".maximumSize", 10000);
+
+    private static final ViewMembershipIndex viewMembershipIndex = new ViewMembershipIndex();
+
+    static ViewMembershipIndex get() {
+        return viewMembershipIndex;
+    }
+
+    private record Membership(String viewPath, String jobName) {}
+
+    /**
+     * The memberships and, for every job, the keys it has in them.
+     */
+    private static final class Index {
+
+        private final ConcurrentMap<String, Set<Membership>> keysByJob = new ConcurrentHashMap<>();
+
+        private final Cache<Membership, Boolean> memberships = CacheBuilder.newBuilder()
+                .maximumSize(MAXIMUM_SIZE)
+                .removalListener((RemovalListener<Membership, Boolean>) notification -> {
+                    Membership key = notification.getKey();
+                    if (key != null && notification.wasEvicted()) {
+                        removeKey(key);
+                    }
+                })
+                .build();
+
+        private void put(Membership key, boolean member) {
+            // Known to the job before it is in the index so that an invalidation of the job always finds it, added
+            // in compute so that it cannot go to a set that an invalidation just took out
+            keysByJob.compute(key.jobName(), (jobName, keys) -> {
+                Set<Membership> jobKeys = keys != null ? keys : ConcurrentHashMap.newKeySet();
+                jobKeys.add(key);
+                return jobKeys;
+            });
+            memberships.put(key, member);
+        }
+
+        private void removeKey(Membership key) {
+            keysByJob.computeIfPresent(key.jobName(), (jobName, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+
+        private void invalidate(String jobName) {
+            Set<Membership> keys = keysByJob.remove(jobName);
+            if (keys != null) {
+                memberships.invalidateAll(keys);
+            }
+        }
+    }
+
+    // Replaced as a whole when invalidated so that a lookup that is in progress does not fill the new index
+    private volatile Index index = new Index();
+
+    private ViewMembershipIndex() {}
+
+    /**
+     * Checks if a job is in a view, looking up the view and evaluating it only if not done before.
+     *
+     * @param viewPath the path of the view, part of the key of the index
+     * @param job the job to look for
+     * @param findView looks up the view for the path
+     * @param isJobInView evaluates if the job is in the view
+     * @return <code>true</code> if the job is in the view
+     */
+    boolean contains(
+            String viewPath,
+            Job<?, ?> job,
+            Function<String, View> findView,
+            BiPredicate<Job<?, ?>, View> isJobInView) {
+        Index current = index;
+        Membership key = new Membership(viewPath, job.getFullName());
+        Boolean member = current.memberships.getIfPresent(key);
+        if (member == null) {
+            member = isJobInView.test(job, findView.apply(viewPath));
+            current.put(key, member);
+        }
+        return member;
+    }
+
+    void invalidate() {
+        index = new Index();
+    }
+
+    void invalidate(String jobName) {
+        index.invalidate(jobName);
+    }
+
+    private static void onChanged(Item item, String fullName) {
+        if (item instanceof Job) {
+            get().invalidate(fullName);
+        } else {
+            get().invalidate();
+        }
+    }
+
+    @Extension
+    public static class ViewMembershipItemListener extends ItemListener {
+
+        @Override
+        public void onCreated(Item item) {
+            onChanged(item, item.getFullName());
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            onChanged(item, item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            onChanged(item, oldFullName);
+            onChanged(item, newFullName);
+        }
+
+        // An update is a save of the item, seen by the ViewMembershipSaveableListener
+    }
+
+    @Extension
+    public static class ViewMembershipSaveableListener extends SaveableListener {
+
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof Item item) {
+                onChanged(item, item.getFullName());
+            } else if (o instanceof Jenkins) {
+                get().invalidate();
+            }
+        }
+    }
+}
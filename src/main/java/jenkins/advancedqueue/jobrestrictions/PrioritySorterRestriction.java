@@ -33,8 +33,7 @@ import hudson.util.ListBoxModel;
 import java.util.logging.Logger;
 import jenkins.advancedqueue.Messages;
 import jenkins.advancedqueue.PrioritySorterConfiguration;
-import jenkins.advancedqueue.sorter.ItemInfo;
-import jenkins.advancedqueue.sorter.QueueItemCache;
+import jenkins.advancedqueue.sorter.PrioritySnapshot;
 import jenkins.advancedqueue.util.PrioritySorterUtil;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.QueryParameter;
@@ -103,12 +102,12 @@ public class PrioritySorterRestriction extends JobRestriction {
 
     @Override
     public boolean canTake(BuildableItem buildableItem) {
-        ItemInfo item = QueueItemCache.get().getItem(buildableItem.getId());
-        if (item == null) {
+        // Called for every node the item could run on, the snapshot of the pass saves looking the item up each time
+        int priority = PrioritySnapshot.get().getPriority(buildableItem.getId());
+        if (priority == PrioritySnapshot.UNKNOWN) {
             LOGGER.warning("Missing ItemInfo for [" + buildableItem.task.getDisplayName() + "] allowing execution.");
             return true;
         }
-        int priority = item.getPriority();
         return priority >= fromPriority && priority <= toPriority;
     }
 
@@ -0,0 +1,108 @@
+package jenkins.advancedqueue.priority;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.Cause;
+import hudson.model.Queue;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The causes of a {@link Queue.Item} by their class, so that {@link PriorityStrategy}s looking for a cause do not
+ * each scan the causes of the item.
+ * <p>
+ * While an item is evaluated the sorter keeps its index for the current thread, see {@link #open(Queue.Item)}, so
+ * the causes are scanned once for all strategies. Outside of that every lookup builds its own index.
+ */
+public final class CauseIndex {
+
+    private static final ThreadLocal<CauseIndex> CURRENT = new ThreadLocal<>();
+
+    private final Queue.Item item;
+
+    // The first cause of every class, built with the first lookup
+    private Map<Class<?>, Cause> class2cause;
+
+    private CauseIndex(Queue.Item item) {
+        this.item = item;
+    }
+
+    /**
+     * Gets the index of the causes of an item, the one kept for the item being evaluated if there is one.
+     *
+     * @param item the item
+     * @return the index of the causes of the item
+     */
+    @NonNull
+    public static CauseIndex of(@NonNull Queue.Item item) {
+        CauseIndex index = CURRENT.get();
+        if (index != null && index.item == item) {
+            return index;
+        }
+        return new CauseIndex(item);
+    }
+
+    /**
+     * Keeps the index of an item for the current thread until the returned scope is closed.
+     *
+     * @param item the item being evaluated
+     * @return the scope to close when the item has been evaluated
+     */
+    @NonNull
+    public static Scope open(@NonNull Queue.Item item) {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(new CauseIndex(item));
+        return scope;
+    }
+
+    /**
+     * Gets the first cause of the item of exactly the provided class, subclasses are not matched.
+     *
+     * @param type the class of the cause
+     * @return the cause or <code>null</code> if the item has no cause of the class
+     */
+    @CheckForNull
+    public <T extends Cause> T get(@NonNull Class<T> type) {
+        if (class2cause == null) {
+            List<Cause> causes = item.getCauses();
+            Map<Class<?>, Cause> index = new HashMap<>();
+            for (Cause cause : causes) {
+                index.putIfAbsent(cause.getClass(), cause);
+            }
+            class2cause = index;
+        }
+        return type.cast(class2cause.get(type));
+    }
+
+    /**
+     * Tells if the item has a cause of exactly the provided class.
+     *
+     * @param type the class of the cause
+     * @return <code>true</code> if the item has a cause of the class
+     */
+    public boolean contains(@NonNull Class<? extends Cause> type) {
+        return get(type) != null;
+    }
+
+    /**
+     * Restores the index kept before {@link #open(Queue.Item)} when closed.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final CauseIndex previous;
+
+        private Scope(CauseIndex previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
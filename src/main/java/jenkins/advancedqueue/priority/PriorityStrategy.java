@@ -38,6 +38,11 @@ import jenkins.model.Jenkins;
  */
 public abstract class PriorityStrategy implements ExtensionPoint, Describable<PriorityStrategy> {
 
+    /**
+     * Returned by {@link #getPriorityIfApplicable(Queue.Item)} when the strategy is not applicable.
+     */
+    public static final int NOT_APPLICABLE = Integer.MIN_VALUE;
+
     /**
      * Method that checks if strategy can assign a priority to the provided {@link Item}
      *
@@ -59,6 +64,31 @@ public abstract class PriorityStrategy implements ExtensionPoint, Describable<Pr
      */
     public abstract int getPriority(Queue.Item item);
 
+    /**
+     * Method that checks if the strategy is applicable and returns the priority for the {@link Item} in one call.
+     * Strategies that find out both in the same way can override this to only do it once, by default it calls
+     * {@link #isApplicable(Queue.Item)} and {@link #getPriority(Queue.Item)}.
+     *
+     * The caller guaranties that the {@link Item#task} is a {@link Job}
+     *
+     * @param item the {@link Item} to check
+     * @return the priority to be used by the provided {@link Item} or {@link #NOT_APPLICABLE}
+     */
+    public int getPriorityIfApplicable(Queue.Item item) {
+        return isApplicable(item) ? getPriority(item) : NOT_APPLICABLE;
+    }
+
+    /**
+     * Tells if {@link #isApplicable(Queue.Item)} and {@link #getPriority(Queue.Item)} need to run as
+     * {@link hudson.security.ACL#SYSTEM2}. Strategies that only look at the item and its job can return
+     * <code>false</code> so that the priority of an item is found without changing the security context.
+     *
+     * @return <code>true</code> if the strategy needs elevated permissions, the default
+     */
+    public boolean requiresElevatedPermissions() {
+        return true;
+    }
+
     public abstract void numberPrioritiesUpdates(int oldNumberOfPriorities, int newNumberOfPriorities);
 
     public static DescriptorExtensionList<PriorityStrategy, Descriptor<PriorityStrategy>> all() {
@@ -95,4 +95,15 @@ public class BuildParameterStrategy extends AbstractDynamicPriorityStrategy {
     public boolean isApplicable(@NonNull Queue.Item item) {
         return getPriorityInternal(item) != null;
     }
+
+    @Override
+    public int getPriorityIfApplicable(@NonNull Queue.Item item) {
+        final Integer p = getPriorityInternal(item);
+        return p != null ? p : NOT_APPLICABLE;
+    }
+
+    @Override
+    public boolean requiresElevatedPermissions() {
+        return false;
+    }
 }
@@ -25,10 +25,9 @@ package jenkins.advancedqueue.priority.strategy;
 
 import hudson.Extension;
 import hudson.cli.BuildCommand.CLICause;
-import hudson.model.Cause;
 import hudson.model.Queue;
-import java.util.List;
 import jenkins.advancedqueue.Messages;
+import jenkins.advancedqueue.priority.CauseIndex;
 import org.kohsuke.stapler.DataBoundConstructor;
 
 /**
@@ -52,12 +51,11 @@ public class CLICauseStrategy extends AbstractStaticPriorityStrategy {
 
     @Override
     public boolean isApplicable(Queue.Item item) {
-        List<Cause> causes = item.getCauses();
-        for (Cause cause : causes) {
-            if (cause.getClass() == CLICause.class) {
-                return true;
-            }
-        }
+        return CauseIndex.of(item).contains(CLICause.class);
+    }
+
+    @Override
+    public boolean requiresElevatedPermissions() {
         return false;
     }
 }
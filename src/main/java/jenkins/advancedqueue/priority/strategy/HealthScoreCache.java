@@ -0,0 +1,141 @@
+package jenkins.advancedqueue.priority.strategy;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.Saveable;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+import hudson.model.listeners.SaveableListener;
+import java.util.concurrent.Executor;
+import jenkins.util.Timer;
+
+/**
+ * Keeps the health score of the jobs looked at by {@link HealthStrategy}, so that the builds of a job are not
+ * loaded and its health reports are not computed again for every item of the job in the queue.
+ * <p>
+ * The score of a job is found the first time it is needed and from then on refreshed by
+ * {@link HealthScoreRunListener} when a build of the job is finalized, so on the executor thread and not on the
+ * queue thread. When a build is deleted or the job is updated, as the configuration decides how the health is
+ * reported, the score is marked stale. The last known score is still used and it is found again in the background
+ * the next time it is asked for. Scores are never computed while holding the lock of the cache. Jobs are held
+ * weakly, the score of a deleted job goes away with it.
+ */
+public final class HealthScoreCache {
+
+    // Kept for jobs without builds, these have no health
+    static final int NO_BUILDS = Integer.MIN_VALUE;
+
+    private static final HealthScoreCache healthScoreCache = new HealthScoreCache();
+
+    public static HealthScoreCache get() {
+        return healthScoreCache;
+    }
+
+    /**
+     * The last known score of a job and whether it has to be found again.
+     */
+    private record Score(int value, boolean stale) {}
+
+    private final Cache<Job<?, ?>, Score> job2score = CacheBuilder.newBuilder().weakKeys().build();
+
+    // Finds stale scores away from the queue thread
+    private volatile Executor executor = Timer.get();
+
+    private HealthScoreCache() {}
+
+    /**
+     * Gets the health score of a job, found from its builds the first time it is asked for.
+     *
+     * @param job the job
+     * @return the health score of the job or {@link #NO_BUILDS} if the job has no builds
+     */
+    int getScore(Job<?, ?> job) {
+        Score score = job2score.getIfPresent(job);
+        if (score == null) {
+            // The first time there is no score to fall back to
+            int value = computeScore(job);
+            Score previous = job2score.asMap().putIfAbsent(job, new Score(value, false));
+            return previous != null ? previous.value() : value;
+        }
+        if (score.stale() && job2score.asMap().replace(job, score, new Score(score.value(), false))) {
+            // Only the lookup that clears the mark finds the score again
+            executor.execute(() -> refresh(job));
+        }
+        return score.value();
+    }
+
+    /* package-protected for testing */
+    void refresh(Job<?, ?> job) {
+        // Only the jobs already looked at by a strategy are kept up to date
+        if (job2score.getIfPresent(job) == null) {
+            return;
+        }
+        int value = computeScore(job);
+        job2score.asMap().computeIfPresent(job, (j, score) -> new Score(value, false));
+    }
+
+    /* package-protected for testing */
+    void invalidate(Job<?, ?> job) {
+        job2score.asMap().computeIfPresent(job, (j, score) -> new Score(score.value(), true));
+    }
+
+    /* package-protected for testing */
+    void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    private static int computeScore(Job<?, ?> job) {
+        if (!job.getBuilds().iterator().hasNext()) {
+            return NO_BUILDS;
+        }
+        return job.getBuildHealth().getScore();
+    }
+
+    /**
+     * Refreshes the health score of a job when one of its builds is finalized or deleted.
+     */
+    @Extension
+    public static class HealthScoreRunListener extends RunListener<Run> {
+
+        @Override
+        public void onFinalized(Run r) {
+            HealthScoreCache.get().refresh(r.getParent());
+        }
+
+        @Override
+        public void onDeleted(Run r) {
+            // The build is still part of the job, the score is found again when it is next needed
+            HealthScoreCache.get().invalidate(r.getParent());
+        }
+    }
+
+    /**
+     * Marks the health score of a job stale when its configuration is changed, from the UI or by a save.
+     */
+    @Extension
+    public static class HealthScoreItemListener extends ItemListener {
+
+        @Override
+        public void onUpdated(Item item) {
+            if (item instanceof Job<?, ?> job) {
+                HealthScoreCache.get().invalidate(job);
+            }
+        }
+    }
+
+    @Extension
+    public static class HealthScoreSaveableListener extends SaveableListener {
+
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof Job<?, ?> job) {
+                HealthScoreCache.get().invalidate(job);
+            }
+        }
+    }
+}
@@ -23,11 +23,15 @@
  */
 package jenkins.advancedqueue.priority.strategy;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import hudson.Extension;
 import hudson.model.Job;
 import hudson.model.Queue;
+import hudson.util.FormValidation;
 import jenkins.advancedqueue.Messages;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
 
 /**
  * @author Magnus Sandberg
@@ -41,17 +45,72 @@ public class HealthStrategy extends AbstractStaticPriorityStrategy {
         public HealthStrategyDescriptor() {
             super(Messages.Using_the_jobs_health());
         }
+
+        public FormValidation doCheckMinimumScore(@QueryParameter String value, @QueryParameter String maximumScore) {
+            return checkScores(value, value, maximumScore);
+        }
+
+        public FormValidation doCheckMaximumScore(@QueryParameter String minimumScore, @QueryParameter String value) {
+            return checkScores(value, minimumScore, value);
+        }
+    }
+
+    /* package-protected for testing */
+    static FormValidation checkScores(String score, String minimumScore, String maximumScore) {
+        if (parseScore(score) == null) {
+            return FormValidation.error(Messages.HealthStrategy_enterScoreRequestMessage());
+        }
+        Integer minimum = parseScore(minimumScore);
+        Integer maximum = parseScore(maximumScore);
+        if (minimum != null && maximum != null && minimum > maximum) {
+            return FormValidation.error(Messages.HealthStrategy_invertedRangeMessage());
+        }
+        return FormValidation.ok();
     }
 
+    @CheckForNull
+    private static Integer parseScore(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            int score = Integer.parseInt(value.trim());
+            return score >= 0 && score <= 100 ? score : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The value of {@link #getHealth()} for the range between {@link #getMinimumScore()} and
+     * {@link #getMaximumScore()}.
+     */
+    public static final String CUSTOM = "CUSTOM";
+
     private String selection;
 
     private String health;
 
+    private int minimumScore = 0;
+
+    private int maximumScore = 100;
+
+    // The scores the strategy is applicable for, found from the configuration once
+    private transient int lowerBound;
+
+    private transient int upperBound;
+
     @DataBoundConstructor
     public HealthStrategy(int priority, String selection, String health) {
         setPriority(priority);
         this.selection = selection;
         this.health = health;
+        updateBounds();
+    }
+
+    protected Object readResolve() {
+        updateBounds();
+        return this;
     }
 
     public String getSelection() {
@@ -62,13 +121,27 @@ public class HealthStrategy extends AbstractStaticPriorityStrategy {
         return health;
     }
 
-    @Override
-    public boolean isApplicable(Queue.Item item) {
-        Job<?, ?> job = (Job<?, ?>) item.task;
-        if (!job.getBuilds().iterator().hasNext()) {
-            return false;
-        }
-        int score = job.getBuildHealth().getScore();
+    public int getMinimumScore() {
+        return minimumScore;
+    }
+
+    @DataBoundSetter
+    public void setMinimumScore(int minimumScore) {
+        this.minimumScore = minimumScore;
+        updateBounds();
+    }
+
+    public int getMaximumScore() {
+        return maximumScore;
+    }
+
+    @DataBoundSetter
+    public void setMaximumScore(int maximumScore) {
+        this.maximumScore = maximumScore;
+        updateBounds();
+    }
+
+    private void updateBounds() {
         int scoreOver = 0;
         int scoreUnder = 100;
         if ("HEALTH_OVER_80".equals(health)) {
@@ -86,16 +159,34 @@ public class HealthStrategy extends AbstractStaticPriorityStrategy {
         } else if ("HEALTH_0_TO_20".equals(health)) {
             scoreOver = 0;
             scoreUnder = 20;
+        } else if (CUSTOM.equals(health)) {
+            // Kept within the scores of a job and in order, the form tells about a range entered otherwise
+            int minimum = Math.max(0, Math.min(100, minimumScore));
+            int maximum = Math.max(0, Math.min(100, maximumScore));
+            scoreOver = Math.min(minimum, maximum);
+            scoreUnder = Math.max(minimum, maximum);
         }
         if ("SAME".equals(selection)) {
-            return score >= scoreOver && score <= scoreUnder;
-        }
-        if ("BETTER".equals(selection)) {
-            return score >= scoreOver;
+            lowerBound = scoreOver;
+            upperBound = scoreUnder;
+        } else if ("BETTER".equals(selection)) {
+            lowerBound = scoreOver;
+            upperBound = Integer.MAX_VALUE;
+        } else if ("WORSE".equals(selection)) {
+            lowerBound = Integer.MIN_VALUE;
+            upperBound = scoreUnder;
+        } else {
+            lowerBound = Integer.MAX_VALUE;
+            upperBound = Integer.MIN_VALUE;
         }
-        if ("WORSE".equals(selection)) {
-            return score <= scoreUnder;
-        }
-        return false;
+        // Jobs without builds are below every lower bound so they are never applicable
+        lowerBound = Math.max(lowerBound, HealthScoreCache.NO_BUILDS + 1);
+    }
+
+    @Override
+    public boolean isApplicable(Queue.Item item) {
+        Job<?, ?> job = (Job<?, ?>) item.task;
+        int score = HealthScoreCache.get().getScore(job);
+        return score >= lowerBound && score <= upperBound;
     }
 }
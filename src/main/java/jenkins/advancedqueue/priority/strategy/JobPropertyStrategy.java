@@ -54,7 +54,7 @@ public class JobPropertyStrategy extends AbstractDynamicPriorityStrategy {
         if (item != null && item.task instanceof Job<?, ?> job) {
             PriorityJobProperty priorityProperty = job.getProperty(PriorityJobProperty.class);
             if (priorityProperty != null && priorityProperty.getUseJobPriority()) {
-                return priorityProperty.priority;
+                return priorityProperty.getPriority();
             }
         }
         return null;
@@ -70,4 +70,15 @@ public class JobPropertyStrategy extends AbstractDynamicPriorityStrategy {
         final Integer p = getPriorityInternal(item);
         return p != null ? p : PrioritySorterConfiguration.get().getStrategy().getDefaultPriority();
     }
+
+    @Override
+    public int getPriorityIfApplicable(Queue.Item item) {
+        final Integer p = getPriorityInternal(item);
+        return p != null ? p : NOT_APPLICABLE;
+    }
+
+    @Override
+    public boolean requiresElevatedPermissions() {
+        return false;
+    }
 }
@@ -36,9 +36,11 @@ import jenkins.advancedqueue.JobGroup;
 import jenkins.advancedqueue.JobGroup.PriorityStrategyHolder;
 import jenkins.advancedqueue.Messages;
 import jenkins.advancedqueue.PriorityConfiguration;
+import jenkins.advancedqueue.PriorityCalculationsUtil;
 import jenkins.advancedqueue.PriorityConfigurationCallback;
 import jenkins.advancedqueue.PrioritySorterConfiguration;
 import jenkins.advancedqueue.priority.PriorityStrategy;
+import jenkins.model.Jenkins;
 import net.sf.json.JSONObject;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.StaplerRequest2;
@@ -51,9 +53,23 @@ public class PriorityJobProperty extends JobProperty<Job<?, ?>> {
 
     private static final Logger LOGGER = Logger.getLogger(PriorityJobProperty.class.getName());
 
+    // Set by the constructor when there is no Jenkins to find the current scale epoch with
+    private static final int UNKNOWN_SCALE_EPOCH = -1;
+
     public final boolean useJobPriority;
+
+    /**
+     * The priority as it was set, on the number of priorities of {@link #getScaleEpoch()}.
+     *
+     * @deprecated the number of priorities may have changed since the priority was set, use {@link #getPriority()}
+     *     to have it on the current number of priorities
+     */
+    @Deprecated
     public final int priority;
 
+    // Not set for the priorities saved before there were scale epochs, those are on the first epoch
+    private int scaleEpoch;
+
     @Override
     public JobProperty<?> reconfigure(StaplerRequest2 req, JSONObject form) throws FormException {
         return super.reconfigure(req, form);
@@ -61,12 +77,44 @@ public class PriorityJobProperty extends JobProperty<Job<?, ?>> {
 
     @DataBoundConstructor
     public PriorityJobProperty(boolean useJobPriority, int priority) {
+        this(useJobPriority, priority, getCurrentScaleEpoch());
+    }
+
+    /* package-protected for testing */
+    PriorityJobProperty(boolean useJobPriority, int priority, int scaleEpoch) {
         this.useJobPriority = useJobPriority;
         this.priority = priority;
+        this.scaleEpoch = scaleEpoch;
     }
 
+    /**
+     * @return the priority scaled to the current number of priorities
+     */
     public int getPriority() {
-        return priority;
+        int epoch = getScaleEpoch();
+        if (epoch == UNKNOWN_SCALE_EPOCH) {
+            return priority;
+        }
+        return PriorityCalculationsUtil.scaleFromEpoch(epoch, priority);
+    }
+
+    /**
+     * @return the scale epoch of the {@link PrioritySorterConfiguration} the priority was set under, for a property
+     *     created before Jenkins was started the epoch current when it is first read
+     */
+    public int getScaleEpoch() {
+        if (scaleEpoch == UNKNOWN_SCALE_EPOCH) {
+            scaleEpoch = getCurrentScaleEpoch();
+        }
+        return scaleEpoch;
+    }
+
+    private static int getCurrentScaleEpoch() {
+        if (Jenkins.getInstanceOrNull() == null) {
+            return UNKNOWN_SCALE_EPOCH;
+        }
+        PrioritySorterConfiguration configuration = PrioritySorterConfiguration.get();
+        return configuration != null ? configuration.getScaleEpoch() : UNKNOWN_SCALE_EPOCH;
     }
 
     public boolean getUseJobPriority() {
@@ -26,12 +26,11 @@ package jenkins.advancedqueue.priority.strategy;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
-import hudson.model.Cause;
 import hudson.model.Cause.UpstreamCause;
 import hudson.model.Queue;
-import java.util.List;
 import jenkins.advancedqueue.Messages;
 import jenkins.advancedqueue.PrioritySorterConfiguration;
+import jenkins.advancedqueue.priority.CauseIndex;
 import jenkins.advancedqueue.sorter.ItemInfo;
 import jenkins.advancedqueue.sorter.StartedJobItemCache;
 import org.kohsuke.stapler.DataBoundConstructor;
@@ -55,13 +54,7 @@ public class UpstreamCauseStrategy extends AbstractDynamicPriorityStrategy {
 
     @CheckForNull
     private UpstreamCause getUpstreamCause(@NonNull Queue.Item item) {
-        List<Cause> causes = item.getCauses();
-        for (Cause cause : causes) {
-            if (cause.getClass() == UpstreamCause.class) {
-                return (UpstreamCause) cause;
-            }
-        }
-        return null;
+        return CauseIndex.of(item).get(UpstreamCause.class);
     }
 
     public int getPriority(Queue.Item item) {
@@ -70,7 +63,10 @@ public class UpstreamCauseStrategy extends AbstractDynamicPriorityStrategy {
             // Cannot determine
             return PrioritySorterConfiguration.get().getStrategy().getDefaultPriority();
         }
+        return getUpstreamPriority(upstreamCause);
+    }
 
+    private int getUpstreamPriority(@NonNull UpstreamCause upstreamCause) {
         String upstreamProject = upstreamCause.getUpstreamProject();
         int upstreamBuildId = upstreamCause.getUpstreamBuild();
         ItemInfo upstreamItem = StartedJobItemCache.get().getStartedItem(upstreamProject, upstreamBuildId);
@@ -85,4 +81,15 @@ public class UpstreamCauseStrategy extends AbstractDynamicPriorityStrategy {
     public boolean isApplicable(Queue.Item item) {
         return getUpstreamCause(item) != null;
     }
+
+    @Override
+    public int getPriorityIfApplicable(Queue.Item item) {
+        UpstreamCause upstreamCause = getUpstreamCause(item);
+        return upstreamCause != null ? getUpstreamPriority(upstreamCause) : NOT_APPLICABLE;
+    }
+
+    @Override
+    public boolean requiresElevatedPermissions() {
+        return false;
+    }
 }
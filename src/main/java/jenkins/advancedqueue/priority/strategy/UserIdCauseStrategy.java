@@ -24,11 +24,10 @@
 package jenkins.advancedqueue.priority.strategy;
 
 import hudson.Extension;
-import hudson.model.Cause;
 import hudson.model.Cause.UserIdCause;
 import hudson.model.Queue;
-import java.util.List;
 import jenkins.advancedqueue.Messages;
+import jenkins.advancedqueue.priority.CauseIndex;
 import org.kohsuke.stapler.DataBoundConstructor;
 
 /**
@@ -52,12 +51,11 @@ public class UserIdCauseStrategy extends AbstractStaticPriorityStrategy {
 
     @Override
     public boolean isApplicable(Queue.Item item) {
-        List<Cause> causes = item.getCauses();
-        for (Cause cause : causes) {
-            if (cause.getClass() == UserIdCause.class) {
-                return true;
-            }
-        }
+        return CauseIndex.of(item).contains(UserIdCause.class);
+    }
+
+    @Override
+    public boolean requiresElevatedPermissions() {
         return false;
     }
 }
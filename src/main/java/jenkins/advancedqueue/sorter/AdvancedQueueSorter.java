@@ -32,14 +32,21 @@ import hudson.model.Queue.BuildableItem;
 import hudson.model.Queue.Item;
 import hudson.model.Queue.LeftItem;
 import hudson.model.queue.QueueSorter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import jenkins.advancedqueue.ExecutorReservationDispatcher;
 import jenkins.advancedqueue.PriorityConfiguration;
 import jenkins.advancedqueue.PrioritySorterConfiguration;
+import jenkins.advancedqueue.priority.CauseIndex;
+import jenkins.util.SystemProperties;
 
 /**
  * @author Magnus Sandberg
@@ -50,6 +57,19 @@ public class AdvancedQueueSorter extends QueueSorter {
 
     private static final Logger LOGGER = Logger.getLogger("PrioritySorter.Queue.Sorter");
 
+    /**
+     * Sort using the sorted index of the {@link QueueItemCache} or on a snapshot of the sort keys instead of
+     * looking up the {@link ItemInfo}s for every comparison, can be disabled to fall back to the comparator
+     * based sorting.
+     */
+    static final boolean SNAPSHOT_SORT =
+            SystemProperties.getBoolean(AdvancedQueueSorter.class.getName() + ".snapshotSort", true);
+
+    /**
+     * The index is walked when at least one in this many of the items in the queue are to be sorted.
+     */
+    private static final int INDEX_SORT_RATIO = 8;
+
     public AdvancedQueueSorter() {}
 
     public static void init() {
@@ -70,15 +90,9 @@ public class AdvancedQueueSorter extends QueueSorter {
     }
 
     public void sortNotWaitingItems(List<? extends Queue.NotWaitingItem> items) {
-        Collections.sort(items, (Comparator<Queue.NotWaitingItem>) (o1, o2) -> {
-            ItemInfo item1 = QueueItemCache.get().getItem(o1.getId());
-            ItemInfo item2 = QueueItemCache.get().getItem(o2.getId());
-            if (item1 == null || item2 == null) {
-                LOGGER.warning("Requested to sort unknown items, sorting on queue-time only.");
-                return Long.compare(o1.getInQueueSince(), o2.getInQueueSince());
-            }
-            return item1.compareTo(item2);
-        });
+        if (!SNAPSHOT_SORT || !sortUsingIndexOrSnapshot(items)) {
+            sortUsingComparator(items);
+        }
         //
         if (!items.isEmpty() && LOGGER.isLoggable(Level.FINE)) {
             ItemInfo minItem = QueueItemCache.get().getItem(items.get(0).getId());
@@ -96,9 +110,131 @@ public class AdvancedQueueSorter extends QueueSorter {
         }
     }
 
+    /* package-protected for testing */
+    void sortUsingComparator(List<? extends Queue.NotWaitingItem> items) {
+        Collections.sort(items, (Comparator<Queue.NotWaitingItem>) (o1, o2) -> {
+            ItemInfo item1 = QueueItemCache.get().getItem(o1.getId());
+            ItemInfo item2 = QueueItemCache.get().getItem(o2.getId());
+            if (item1 == null || item2 == null) {
+                LOGGER.warning("Requested to sort unknown items, sorting on queue-time only.");
+                return Long.compare(o1.getInQueueSince(), o2.getInQueueSince());
+            }
+            return item1.compareTo(item2);
+        });
+    }
+
+    private <T extends Queue.NotWaitingItem> boolean sortUsingIndexOrSnapshot(List<T> items) {
+        // Walking the index visits every item in the queue, for a small part of the queue sorting is cheaper
+        if (items.size() * INDEX_SORT_RATIO >= QueueItemCache.get().size() && sortUsingIndex(items)) {
+            return true;
+        }
+        return sortUsingSnapshot(items);
+    }
+
+    /**
+     * Orders the items by walking the sorted index of the {@link QueueItemCache}, this takes time linear in the
+     * size of the queue and needs no comparisons.
+     *
+     * @param items the items to sort
+     * @return <code>false</code> if some item was not found in the index, the items are then left untouched
+     */
+    /* package-protected for testing */
+    <T extends Queue.NotWaitingItem> boolean sortUsingIndex(List<T> items) {
+        Map<Long, T> id2item = new HashMap<>(items.size() * 2);
+        for (T item : items) {
+            id2item.put(item.getId(), item);
+        }
+        List<T> sorted = new ArrayList<>(items.size());
+        for (ItemInfo itemInfo : QueueItemCache.get().getSortedItems()) {
+            // Removing makes sure an item that is re-added while walking is only placed once
+            T item = id2item.remove(itemInfo.getItemId());
+            if (item != null) {
+                sorted.add(item);
+                if (id2item.isEmpty()) {
+                    break;
+                }
+            }
+        }
+        if (sorted.size() != items.size()) {
+            return false;
+        }
+        for (int i = 0; i < sorted.size(); i++) {
+            items.set(i, sorted.get(i));
+        }
+        return true;
+    }
+
+    /**
+     * Sorts the items on a snapshot of their sort keys, taken from the {@link QueueItemCache} in one go,
+     * so the cache is consulted once per item instead of twice per comparison.
+     *
+     * @param items the items to sort
+     * @return <code>false</code> if some item is unknown to the cache, the items are then left untouched
+     */
+    /* package-protected for testing */
+    <T extends Queue.NotWaitingItem> boolean sortUsingSnapshot(List<T> items) {
+        ItemInfo[] infos = QueueItemCache.get().getItems(items);
+        SortKey[] keys = new SortKey[infos.length];
+        for (int i = 0; i < infos.length; i++) {
+            if (infos[i] == null) {
+                return false;
+            }
+            keys[i] = new SortKey(infos[i], i);
+        }
+        Arrays.sort(keys);
+        List<T> unsorted = new ArrayList<>(items);
+        for (int i = 0; i < keys.length; i++) {
+            items.set(i, unsorted.get(keys[i].index));
+        }
+        return true;
+    }
+
+    /**
+     * The values {@link ItemInfo#compareTo(ItemInfo)} sorts on, copied so that sorting does not need the cache.
+     */
+    private static final class SortKey implements Comparable<SortKey> {
+        private final float weight;
+        private final long sortableInQueueSince;
+        private final long itemId;
+        private final int index;
+
+        SortKey(ItemInfo itemInfo, int index) {
+            this.weight = itemInfo.getWeight();
+            this.sortableInQueueSince = itemInfo.getSortableInQueueSince();
+            this.itemId = itemInfo.getItemId();
+            this.index = index;
+        }
+
+        @Override
+        public int compareTo(SortKey o) {
+            int result = Float.compare(weight, o.weight);
+            if (result == 0) {
+                result = Long.compare(sortableInQueueSince, o.sortableInQueueSince);
+                if (result == 0) {
+                    result = Long.compare(itemId, o.itemId);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof SortKey key && compareTo(key) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(itemId);
+        }
+    }
+
     @Override
     public void sortBuildableItems(List<BuildableItem> items) {
+        // The buildable items are handed out right after they are sorted
+        ExecutorReservationDispatcher.get().onQueuePass();
         sortNotWaitingItems(items);
+        // The dispatchers and restrictions asked about the items next read them from the snapshot
+        PrioritySnapshot.publish(QueueItemCache.get().getItems(items));
     }
 
     @Override
@@ -110,7 +246,10 @@ public class AdvancedQueueSorter extends QueueSorter {
         final SorterStrategy prioritySorterStrategy =
                 PrioritySorterConfiguration.get().getStrategy();
         ItemInfo itemInfo = new ItemInfo(item);
-        PriorityConfiguration.get().getPriority(item, itemInfo);
+        // The causes of the item are scanned once for all the strategies looking at them
+        try (CauseIndex.Scope ignored = CauseIndex.open(item)) {
+            PriorityConfiguration.get().getPriority(item, itemInfo);
+        }
         prioritySorterStrategy.onNewItem(item, itemInfo);
         QueueItemCache.get().addItem(itemInfo);
         logNewItem(itemInfo);
@@ -30,7 +30,9 @@ import hudson.model.Queue.Item;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import jenkins.advancedqueue.DecisionLogMessage;
 import jenkins.advancedqueue.DecisionLogger;
+import jenkins.advancedqueue.ItemTransitionLogger;
 import jenkins.advancedqueue.PriorityConfigurationCallback;
 import jenkins.advancedqueue.priority.PriorityStrategy;
 
@@ -61,7 +63,11 @@ public class ItemInfo
 
     private ItemStatus itemStatus;
 
-    private List<String> decisionLog = new ArrayList<>(10);
+    // Structured entries are only kept if the decision log will be logged
+    private final boolean keepDecisionLog = ItemTransitionLogger.isDecisionLogEnabled();
+
+    // Allocated with the first entry
+    private List<DecisionLogEntry> decisionLog;
 
     ItemInfo(Item item) {
         this.itemId = item.getId();
@@ -70,6 +76,29 @@ public class ItemInfo
         this.itemStatus = ItemStatus.WAITING;
     }
 
+    /* package-protected for testing */
+    ItemInfo(long itemId, long inQueueSince, String jobName) {
+        this.itemId = itemId;
+        this.inQueueSince = inQueueSince;
+        this.jobName = jobName;
+        this.itemStatus = ItemStatus.WAITING;
+    }
+
+    /**
+     * An entry of the decision log, rendered to text when the log is read.
+     */
+    private record DecisionLogEntry(int indent, DecisionLogMessage message, Object argument) {
+
+        String render() {
+            return message != null ? message.format(argument) : (String) argument;
+        }
+
+        @Override
+        public String toString() {
+            return render();
+        }
+    }
+
     public PriorityConfigurationCallback setPrioritySelection(int priority, int jobGroupId, PriorityStrategy reason) {
         this.priority = priority;
         this.jobGroupId = jobGroupId;
@@ -87,10 +116,33 @@ public class ItemInfo
     }
 
     public PriorityConfigurationCallback addDecisionLog(int indent, String log) {
-        this.decisionLog.add(formatLogEntry(indent, log));
+        addDecisionLogEntry(new DecisionLogEntry(indent, null, log));
         return this;
     }
 
+    @Override
+    public PriorityConfigurationCallback addDecisionLog(int indent, DecisionLogMessage message) {
+        if (keepDecisionLog) {
+            addDecisionLogEntry(new DecisionLogEntry(indent, message, null));
+        }
+        return this;
+    }
+
+    @Override
+    public PriorityConfigurationCallback addDecisionLog(int indent, DecisionLogMessage message, Object argument) {
+        if (keepDecisionLog) {
+            addDecisionLogEntry(new DecisionLogEntry(indent, message, argument));
+        }
+        return this;
+    }
+
+    private void addDecisionLogEntry(DecisionLogEntry entry) {
+        if (decisionLog == null) {
+            decisionLog = new ArrayList<>(10);
+        }
+        decisionLog.add(entry);
+    }
+
     public PriorityConfigurationCallback setPrioritySelection(int priority) {
         setPrioritySelection(priority, -1, null);
         return this;
@@ -195,7 +247,15 @@ public class ItemInfo
     }
 
     public String getDescisionLog() {
-        return decisionLog.isEmpty() ? "" : String.join("\n", decisionLog) + "\n";
+        List<DecisionLogEntry> entries = decisionLog;
+        if (entries == null || entries.isEmpty()) {
+            return "";
+        }
+        StringBuilder log = new StringBuilder(entries.size() * 48);
+        for (DecisionLogEntry entry : entries) {
+            log.append(formatLogEntry(entry.indent(), entry.render())).append('\n');
+        }
+        return log.toString();
     }
 
     /**
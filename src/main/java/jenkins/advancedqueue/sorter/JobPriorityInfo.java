@@ -0,0 +1,119 @@
+package jenkins.advancedqueue.sorter;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import jenkins.advancedqueue.JobGroup;
+import jenkins.advancedqueue.PriorityConfiguration;
+import jenkins.advancedqueue.priority.PriorityStrategy;
+
+/**
+ * The priority assigned to the last queue item of a Job, kept by the {@link QueueItemCache} after the item
+ * has left the queue. Only the values are kept, the {@link PriorityStrategy} that selected the priority is
+ * referenced by the id of its {@link JobGroup.PriorityStrategyHolder} in the {@link JobGroup}.
+ */
+public final class JobPriorityInfo {
+
+    static final int NO_STRATEGY = -1;
+
+    private final String jobName;
+
+    private final long itemId;
+
+    private final int priority;
+
+    private final int jobGroupId;
+
+    private final int priorityStrategyId;
+
+    JobPriorityInfo(String jobName, long itemId, int priority, int jobGroupId, int priorityStrategyId) {
+        this.jobName = jobName;
+        this.itemId = itemId;
+        this.priority = priority;
+        this.jobGroupId = jobGroupId;
+        this.priorityStrategyId = priorityStrategyId;
+    }
+
+    static JobPriorityInfo of(ItemInfo itemInfo) {
+        return new JobPriorityInfo(
+                itemInfo.getJobName(),
+                itemInfo.getItemId(),
+                itemInfo.getPriority(),
+                itemInfo.getJobGroupId(),
+                findPriorityStrategyId(itemInfo.getJobGroupId(), itemInfo.getPriorityStrategy()));
+    }
+
+    private static int findPriorityStrategyId(int jobGroupId, @CheckForNull PriorityStrategy priorityStrategy) {
+        if (priorityStrategy == null) {
+            return NO_STRATEGY;
+        }
+        JobGroup jobGroup = findJobGroup(jobGroupId);
+        if (jobGroup != null) {
+            for (JobGroup.PriorityStrategyHolder holder : jobGroup.getPriorityStrategies()) {
+                if (holder.getPriorityStrategy() == priorityStrategy) {
+                    return holder.getId();
+                }
+            }
+        }
+        return NO_STRATEGY;
+    }
+
+    @CheckForNull
+    private static JobGroup findJobGroup(int jobGroupId) {
+        PriorityConfiguration priorityConfiguration = PriorityConfiguration.get();
+        return priorityConfiguration != null ? priorityConfiguration.getJobGroup(jobGroupId) : null;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    /**
+     * @return the id of the queue item the priority was assigned to
+     */
+    public long getItemId() {
+        return itemId;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public int getJobGroupId() {
+        return jobGroupId;
+    }
+
+    /**
+     * @return the id of the {@link JobGroup.PriorityStrategyHolder} that selected the priority or
+     *         <code>-1</code> if the priority came from the {@link JobGroup} itself
+     */
+    public int getPriorityStrategyId() {
+        return priorityStrategyId;
+    }
+
+    /**
+     * Looks up the {@link PriorityStrategy} that selected the priority in the current configuration.
+     *
+     * @return the strategy or <code>null</code> if there was none or it has been removed since
+     */
+    @CheckForNull
+    public PriorityStrategy getPriorityStrategy() {
+        if (priorityStrategyId == NO_STRATEGY) {
+            return null;
+        }
+        JobGroup jobGroup = findJobGroup(jobGroupId);
+        if (jobGroup == null) {
+            return null;
+        }
+        for (JobGroup.PriorityStrategyHolder holder : jobGroup.getPriorityStrategies()) {
+            if (holder.getId() == priorityStrategyId) {
+                return holder.getPriorityStrategy();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "JobName: %s, itemId: %s, jobGroupId: %s, priority: %s, strategyId: %s"
+                .formatted(jobName, itemId, jobGroupId, priority, priorityStrategyId);
+    }
+}
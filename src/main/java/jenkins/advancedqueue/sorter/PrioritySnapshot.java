@@ -0,0 +1,117 @@
+package jenkins.advancedqueue.sorter;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The priority and the JobGroup of the buildable items of the last pass of the queue, published by the
+ * {@link AdvancedQueueSorter} when it has sorted them. The dispatchers and restrictions that are asked about every
+ * item, some of them once for every node, find the item with a binary search over a few arrays and all of them see
+ * the same values for the whole pass.
+ * <p>
+ * A snapshot does not change once it is published. Items that are not in it, like blocked items or items that
+ * entered the queue after the pass was sorted, are looked up in the {@link QueueItemCache}.
+ */
+public final class PrioritySnapshot {
+
+    /**
+     * Returned for an item that is neither in the snapshot nor in the {@link QueueItemCache}.
+     */
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private static final PrioritySnapshot EMPTY = new PrioritySnapshot(new long[0], new int[0], new int[0]);
+
+    private static volatile PrioritySnapshot current = EMPTY;
+
+    // Sorted ascending, the priority and the JobGroup of an item are found at the same index
+    private final long[] itemIds;
+
+    private final int[] priorities;
+
+    private final int[] jobGroupIds;
+
+    private PrioritySnapshot(long[] itemIds, int[] priorities, int[] jobGroupIds) {
+        this.itemIds = itemIds;
+        this.priorities = priorities;
+        this.jobGroupIds = jobGroupIds;
+    }
+
+    /**
+     * Gets the snapshot of the last pass of the queue.
+     *
+     * @return the snapshot, empty before the first pass
+     */
+    public static PrioritySnapshot get() {
+        return current;
+    }
+
+    /**
+     * Replaces the snapshot with one of the provided items.
+     *
+     * @param infos the items of the pass, <code>null</code> entries are left out
+     */
+    static void publish(ItemInfo[] infos) {
+        current = of(infos);
+    }
+
+    /* package-protected for testing */
+    static PrioritySnapshot of(ItemInfo[] infos) {
+        int size = 0;
+        ItemInfo[] known = new ItemInfo[infos.length];
+        for (ItemInfo info : infos) {
+            if (info != null) {
+                known[size++] = info;
+            }
+        }
+        if (size == 0) {
+            return EMPTY;
+        }
+        Arrays.sort(known, 0, size, Comparator.comparingLong(ItemInfo::getItemId));
+        long[] itemIds = new long[size];
+        int[] priorities = new int[size];
+        int[] jobGroupIds = new int[size];
+        for (int i = 0; i < size; i++) {
+            itemIds[i] = known[i].getItemId();
+            priorities[i] = known[i].getPriority();
+            jobGroupIds[i] = known[i].getJobGroupId();
+        }
+        return new PrioritySnapshot(itemIds, priorities, jobGroupIds);
+    }
+
+    /**
+     * Gets the priority of an item.
+     *
+     * @param itemId the id of an item in the queue
+     * @return the priority of the item or {@link #UNKNOWN} if the item is not known to the sorter
+     */
+    public int getPriority(long itemId) {
+        int index = Arrays.binarySearch(itemIds, itemId);
+        if (index >= 0) {
+            return priorities[index];
+        }
+        ItemInfo info = QueueItemCache.get().getItem(itemId);
+        return info != null ? info.getPriority() : UNKNOWN;
+    }
+
+    /**
+     * Gets the id of the JobGroup of an item.
+     *
+     * @param itemId the id of an item in the queue
+     * @return the id of the JobGroup of the item or {@link #UNKNOWN} if the item is not known to the sorter
+     */
+    public int getJobGroupId(long itemId) {
+        int index = Arrays.binarySearch(itemIds, itemId);
+        if (index >= 0) {
+            return jobGroupIds[index];
+        }
+        ItemInfo info = QueueItemCache.get().getItem(itemId);
+        return info != null ? info.getJobGroupId() : UNKNOWN;
+    }
+
+    /**
+     * @return the number of items in the snapshot
+     */
+    public int size() {
+        return itemIds.length;
+    }
+}
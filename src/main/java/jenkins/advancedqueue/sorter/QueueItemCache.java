@@ -23,20 +23,35 @@
  */
 package jenkins.advancedqueue.sorter;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.model.Queue;
 import hudson.model.Queue.BlockedItem;
 import hudson.model.Queue.BuildableItem;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
- * Keeps track of the Queue.Items seen by the Sorter. Uses a WeakHash to store the entries that have
- * left the queue, this can be used by Strategies that needs this info but still minimizes the need
- * to lookup the data again from Jenkins Core.
+ * Keeps track of the Queue.Items seen by the Sorter. The priority of the last item of every Job is kept
+ * in a bounded cache after the item has left the queue, this can be used by Strategies that needs this
+ * info but still minimizes the need to lookup the data again from Jenkins Core.
+ * <p>
+ * The cache is read from the queue listeners, the sorter and the dispatchers at the same time, so it is
+ * backed by concurrent maps and lookups never block.
+ * <p>
+ * Next to the lookup maps the cache keeps an index of the items in their sort order, updated as items
+ * are added and removed, so the sorted view never has to be sorted from scratch. The index relies on
+ * the weight and the other sort keys of an {@link ItemInfo} not changing after it has been added, other
+ * than all weights moving together in {@link #rebaseWeights(double)}.
  *
  * @author Magnus Sandberg
  * @since 2.3
@@ -45,6 +60,9 @@ public class QueueItemCache {
 
     private static final Logger LOGGER = Logger.getLogger(QueueItemCache.class.getName());
 
+    public static final int DEFAULT_JOB_CACHE_SIZE = 10000;
+    public static final int DEFAULT_JOB_CACHE_RETENTION_HOURS = 168;
+
     private static QueueItemCache queueItemCache = null;
 
     static {
@@ -56,12 +74,47 @@ public class QueueItemCache {
     }
 
     // Keeps track of all items currently in the queue
-    private Map<Long, ItemInfo> item2info = new HashMap<>();
-    // Keeps track of the last started item of the Job
-    private Map<String, ItemInfo> jobName2info = new HashMap<>();
+    private final Map<Long, ItemInfo> item2info = new ConcurrentHashMap<>();
+    // Keeps track of the priority of the last item of the Job
+    private volatile Cache<String, JobPriorityInfo> jobName2info =
+            buildJobCache(DEFAULT_JOB_CACHE_SIZE, DEFAULT_JOB_CACHE_RETENTION_HOURS);
+    // The limits of the job cache, guarded by the write lock
+    private int jobCacheSize = DEFAULT_JOB_CACHE_SIZE;
+    private int jobCacheRetentionHours = DEFAULT_JOB_CACHE_RETENTION_HOURS;
+    // Keeps the items currently in the queue in their sort order
+    private final NavigableSet<ItemInfo> sortedItems = new ConcurrentSkipListSet<>();
+    // Serializes the writers so that the lookup map and the sorted index stay in sync, readers do not lock
+    private final Object writeLock = new Object();
 
     private QueueItemCache() {}
 
+    private static Cache<String, JobPriorityInfo> buildJobCache(int maxSize, int retentionHours) {
+        return CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(retentionHours, TimeUnit.HOURS)
+                .build();
+    }
+
+    /**
+     * Changes how many Jobs and for how long the priority of their last item is kept. The entries are not
+     * copied to the new cache, copying would restart their retention time, so the priorities kept so far
+     * are dropped and come back as the Jobs are queued again. Nothing changes if the limits are the same.
+     *
+     * @param maxSize the maximum number of Jobs to keep
+     * @param retentionHours the number of hours an entry is kept after the Job was last queued
+     */
+    public void configureJobCache(int maxSize, int retentionHours) {
+        synchronized (writeLock) {
+            if (maxSize == jobCacheSize && retentionHours == jobCacheRetentionHours) {
+                return;
+            }
+            jobCacheSize = maxSize;
+            jobCacheRetentionHours = retentionHours;
+            jobName2info = buildJobCache(maxSize, retentionHours);
+        }
+        LOGGER.fine(() -> "Keeping the priority of at most " + maxSize + " jobs for " + retentionHours + " hours");
+    }
+
     /**
      * Gets the Item for an itemId/queueId
      *
@@ -70,7 +123,7 @@ public class QueueItemCache {
      *         queue
      */
     @CheckForNull
-    public synchronized ItemInfo getItem(long itemId) {
+    public ItemInfo getItem(long itemId) {
         return item2info.get(itemId);
     }
 
@@ -83,38 +136,111 @@ public class QueueItemCache {
      */
     @CheckForNull
     @Deprecated
-    public synchronized ItemInfo getItem(Integer itemId) {
+    public ItemInfo getItem(Integer itemId) {
         return item2info.get(itemId.longValue());
     }
 
+    /**
+     * Gets the Items for several queue items
+     *
+     * @param items the Jobs currently in the queue
+     * @return the {@link ItemInfo}s in the same order as the provided items, with <code>null</code> for items
+     *         not in the queue
+     */
+    ItemInfo[] getItems(List<? extends Queue.Item> items) {
+        ItemInfo[] infos = new ItemInfo[items.size()];
+        int i = 0;
+        for (Queue.Item item : items) {
+            infos[i++] = item2info.get(item.getId());
+        }
+        return infos;
+    }
+
     /**
      * Get the ItemInfo for the last knows start of this Job Name
      *
      * @param jobName a name of a Job
-     * @return the {@link ItemInfo} for the last know start of the Job.
-     *         Can be {@code null} if job didn't run yet
+     * @return the {@link ItemInfo} for the last item of the Job if it is still in the queue.
+     *         Can be {@code null} if job didn't run yet or the item has left the queue
+     * @deprecated since the cache keeps only the priority of the last item of a Job, this no longer returns the
+     *         {@link ItemInfo} of an item that has left the queue, it returns {@code null} for it instead. Use
+     *         {@link #getJobPriorityInfo(String)} to get the priority of the last item whether it is queued or not.
+     */
+    @CheckForNull
+    @Deprecated
+    public ItemInfo getItem(String jobName) {
+        JobPriorityInfo jobPriorityInfo = getJobPriorityInfo(jobName);
+        return jobPriorityInfo != null ? item2info.get(jobPriorityInfo.getItemId()) : null;
+    }
+
+    /**
+     * Get the priority assigned to the last queued item of this Job Name
+     *
+     * @param jobName a name of a Job
+     * @return the {@link JobPriorityInfo} for the last item of the Job.
+     *         Can be {@code null} if job didn't run yet or was not queued within the retention time
      */
     @CheckForNull
-    public synchronized ItemInfo getItem(String jobName) {
-        return jobName2info.get(jobName);
+    public JobPriorityInfo getJobPriorityInfo(String jobName) {
+        return jobName2info.getIfPresent(jobName);
     }
 
-    public synchronized ItemInfo addItem(ItemInfo itemInfo) {
+    public ItemInfo addItem(ItemInfo itemInfo) {
         long itemId = itemInfo.getItemId();
-        item2info.put(itemId, itemInfo);
-        jobName2info.put(itemInfo.getJobName(), itemInfo);
+        synchronized (writeLock) {
+            ItemInfo previous = item2info.put(itemId, itemInfo);
+            if (previous != null) {
+                removeFromIndex(previous);
+            }
+            sortedItems.add(itemInfo);
+        }
+        jobName2info.put(itemInfo.getJobName(), JobPriorityInfo.of(itemInfo));
         return itemInfo;
     }
 
     @CheckForNull
     @Deprecated
-    public synchronized ItemInfo removeItem(Integer itemId) {
-        return item2info.remove(itemId.longValue());
+    public ItemInfo removeItem(Integer itemId) {
+        return removeItem(itemId.longValue());
     }
 
     @CheckForNull
-    public synchronized ItemInfo removeItem(long itemId) {
-        return item2info.remove(itemId);
+    public ItemInfo removeItem(long itemId) {
+        synchronized (writeLock) {
+            ItemInfo itemInfo = item2info.remove(itemId);
+            if (itemInfo != null) {
+                removeFromIndex(itemInfo);
+            }
+            return itemInfo;
+        }
+    }
+
+    private void removeFromIndex(ItemInfo itemInfo) {
+        if (!sortedItems.remove(itemInfo)) {
+            // The sort keys were changed after the item was added, look it up by id instead
+            LOGGER.fine(() -> "Sort keys of item " + itemInfo.getItemId() + " changed while in the queue");
+            sortedItems.removeIf(info -> info.getItemId() == itemInfo.getItemId());
+        }
+    }
+
+    /**
+     * Moves the weights of all items in the queue back by the same offset, used by strategies that assign
+     * ever increasing weights to keep them small. The order of the items does not change so the index is
+     * updated in place.
+     *
+     * @param offset the value to subtract from every weight, a whole number keeps whole weights exact
+     */
+    public void rebaseWeights(double offset) {
+        int count = 0;
+        synchronized (writeLock) {
+            // Walking the index in ascending order keeps it sorted at every step, the moved items only get smaller
+            for (ItemInfo itemInfo : sortedItems) {
+                itemInfo.setWeightSelection((float) (itemInfo.getWeight() - offset));
+                count++;
+            }
+        }
+        final int rebased = count;
+        LOGGER.fine(() -> "Moved the weights of " + rebased + " items back by " + offset);
     }
 
     /**
@@ -123,9 +249,38 @@ public class QueueItemCache {
      *
      * @return the sorted list of all {@link ItemInfo}s
      */
-    public synchronized List<ItemInfo> getSortedList() {
-        ArrayList<ItemInfo> list = new ArrayList<ItemInfo>(item2info.values());
-        Collections.sort(list);
+    public List<ItemInfo> getSortedList() {
+        return Collections.unmodifiableList(new ArrayList<>(sortedItems));
+    }
+
+    /**
+     * Gets the first items in sort order, that is the items that will be handed an executor first.
+     *
+     * @param count the maximum number of items to return
+     * @return the sorted list of at most <code>count</code> {@link ItemInfo}s
+     */
+    public List<ItemInfo> getSortedList(int count) {
+        List<ItemInfo> list = new ArrayList<>(Math.min(count, item2info.size()));
+        for (ItemInfo itemInfo : sortedItems) {
+            if (list.size() >= count) {
+                break;
+            }
+            list.add(itemInfo);
+        }
         return Collections.unmodifiableList(list);
     }
+
+    /**
+     * Gets the number of items currently in the queue.
+     */
+    int size() {
+        return item2info.size();
+    }
+
+    /**
+     * Gives a read only live view of the items currently in the queue in their sort order.
+     */
+    Collection<ItemInfo> getSortedItems() {
+        return Collections.unmodifiableCollection(sortedItems);
+    }
 }
@@ -27,16 +27,23 @@ import com.google.common.base.Objects;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.Extension;
 import hudson.model.Queue.Executable;
 import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
 import hudson.model.queue.WorkUnit;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Keeps track of the Queue.Items seen by the Sorter, but removed from the queue
  * to become jobs, for UpstreamCauseStrategy.
+ * <p>
+ * Items that have left the queue are pending until their {@link Run} is started, the
+ * {@link StartedJobItemRunListener} then moves them to the started items by the queue id of the run.
  *
  * @author Ronny Schuetz
  * @since 3.6.0
@@ -59,12 +66,10 @@ public class StartedJobItemCache {
     private static class PendingItem {
         final long startTime;
         final ItemInfo itemInfo;
-        final WorkUnit workUnit;
 
-        public PendingItem(final ItemInfo itemInfo, final WorkUnit workUnit) {
+        public PendingItem(final ItemInfo itemInfo) {
             this.startTime = System.currentTimeMillis();
             this.itemInfo = itemInfo;
-            this.workUnit = workUnit;
         }
     }
 
@@ -91,7 +96,8 @@ public class StartedJobItemCache {
         }
     }
 
-    private final LinkedList<PendingItem> pendingItems = new LinkedList<PendingItem>();
+    // Pending items by queue id, in the order they left the queue
+    private final LinkedHashMap<Long, PendingItem> pendingItems = new LinkedHashMap<>();
 
     private final Cache<StartedItem, ItemInfo> startedItems = CacheBuilder.newBuilder()
             .expireAfterWrite(RETENTION_TIME_HOURS, TimeUnit.HOURS)
@@ -110,42 +116,62 @@ public class StartedJobItemCache {
      * @return the {@link ItemInfo} for the provided id or <code>null</code> if
      *         projectName/buildNumber combination is unknown
      */
-    public synchronized @CheckForNull ItemInfo getStartedItem(final String projectName, final int buildNumber) {
-        maintainCache();
+    public @CheckForNull ItemInfo getStartedItem(final String projectName, final int buildNumber) {
         return startedItems.getIfPresent(new StartedItem(projectName, buildNumber));
     }
 
     public synchronized void addItem(final ItemInfo itemInfo, final WorkUnit primaryWorkUnit) {
-        pendingItems.addLast(new PendingItem(itemInfo, primaryWorkUnit));
-        maintainCache();
+        final Executable e = primaryWorkUnit.getExecutable();
+        if (e instanceof Run<?, ?> run) {
+            // Already started, the run listener was notified before the item was added
+            addStartedItem(itemInfo, run);
+        } else {
+            pendingItems.put(itemInfo.getItemId(), new PendingItem(itemInfo));
+        }
+        expirePendingItems();
     }
 
-    private void maintainCache() {
-        // Collect job information from pending items to drop WorkUnit reference
-
-        for (final Iterator<PendingItem> it = pendingItems.iterator(); it.hasNext(); ) {
-            final PendingItem pi = it.next();
-            final Executable e = pi.workUnit.getExecutable();
-
-            if (e instanceof Run<?, ?> run) {
-                startedItems.put(new StartedItem(pi.itemInfo.getJobName(), run.getNumber()), pi.itemInfo);
-                it.remove();
-            }
+    /* package-protected for testing */
+    synchronized void onStarted(final Run<?, ?> run) {
+        final PendingItem pi = pendingItems.remove(run.getQueueId());
+        if (pi != null) {
+            addStartedItem(pi.itemInfo, run);
         }
+    }
 
-        // Cleanup pendingItems
+    /* package-protected for testing */
+    synchronized int getPendingCount() {
+        return pendingItems.size();
+    }
 
-        if (pendingItems.size() > RETENTION_COUNT) {
-            pendingItems.subList(0, pendingItems.size() - RETENTION_COUNT).clear();
-        }
+    private void addStartedItem(final ItemInfo itemInfo, final Run<?, ?> run) {
+        startedItems.put(new StartedItem(itemInfo.getJobName(), run.getNumber()), itemInfo);
+    }
 
-        for (final Iterator<PendingItem> it = pendingItems.iterator(); it.hasNext(); ) {
-            final PendingItem pi = it.next();
-            if (pi.startTime < System.currentTimeMillis() - RETENTION_TIME_HOURS * 60 * 60 * 1000) {
+    private void expirePendingItems() {
+        // Pending items are in the order they were added so only the oldest ones need to be looked at
+        final long expiryTime = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(RETENTION_TIME_HOURS);
+        for (final Iterator<Map.Entry<Long, PendingItem>> it =
+                        pendingItems.entrySet().iterator();
+                it.hasNext(); ) {
+            final PendingItem pi = it.next().getValue();
+            if (pendingItems.size() > RETENTION_COUNT || pi.startTime < expiryTime) {
                 it.remove();
             } else {
                 break;
             }
         }
     }
+
+    /**
+     * Moves the pending item of a run to the started items once the run has started.
+     */
+    @Extension
+    public static class StartedJobItemRunListener extends RunListener<Run> {
+
+        @Override
+        public void onStarted(Run r, TaskListener listener) {
+            StartedJobItemCache.get().onStarted(r);
+        }
+    }
 }
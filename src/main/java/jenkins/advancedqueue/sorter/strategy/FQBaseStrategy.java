@@ -23,26 +23,50 @@
  */
 package jenkins.advancedqueue.sorter.strategy;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.model.Queue;
 import hudson.model.Queue.LeftItem;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.List;
+import jenkins.advancedqueue.sorter.ItemInfo;
+import jenkins.advancedqueue.sorter.QueueItemCache;
 import jenkins.advancedqueue.sorter.SorterStrategyCallback;
 
 /**
  * Scheduler based on Fair Queuing algorithm.
+ * <p>
+ * Every item is assigned a virtual finish time as weight: the finish time of the last item of its priority,
+ * or the virtual time if later, plus the step size of the priority. The virtual time follows the weight of
+ * the started items. Weights only grow by adding whole steps so they stay exact, and once the largest weight
+ * handed out passes {@link #REBASE_THRESHOLD} the strategy and the items in the {@link QueueItemCache} are
+ * moved back by the same offset, leaving the order of the queue as it was.
+ * <p>
+ * The last assigned weight of every priority is kept by the strategy instance in an array indexed by
+ * priority. Queue events arrive on several threads so the weights are read and assigned under the lock of
+ * the strategy.
+ *
  * @author Magnus Sandberg
  * @since 2.0
  */
 public abstract class FQBaseStrategy extends MultiBucketStrategy {
-    // The equivalent of a packet size for a network scheduler.
-    protected static final float MIN_STEP_SIZE = 0.00001F;
-    // Keeps track on the last assigned weight for a given priority
-    static final Map<Integer, Float> prio2weight = new HashMap<Integer, Float>();
-    private static final float MIN_STARTED_WEIGHT = 1F;
-    // Keeps track on the max weight of started jobs
-    static float maxStartedWeight = MIN_STARTED_WEIGHT;
+    /**
+     * The equivalent of a packet size for a network scheduler.
+     * <p>
+     * It was 0.00001 while the weights were multiplied by one plus the step. Now that the step is added to the
+     * weight it is a whole number, so that the weights are whole numbers that a float holds exactly up to 2^24,
+     * a smaller step would be lost to rounding once the weights grow.
+     */
+    protected static final float MIN_STEP_SIZE = 1F;
+
+    private static final double MIN_STARTED_WEIGHT = 1D;
+    // Weights are handed out as floats, which hold whole numbers exactly up to 2^24
+    static final double REBASE_THRESHOLD = 1 << 20;
+    // Keeps track on the last assigned weight for a given priority, 0 if none has been assigned.
+    // Created lazily since the strategy is also created by XStream without calling a constructor.
+    private transient double[] prio2weight;
+    // Keeps track on the max weight of started jobs, the virtual time
+    private transient double maxStartedWeight;
+    // Keeps track on the max weight assigned, items that have not started yet can be far ahead of the virtual time
+    private transient double maxAssignedWeight;
 
     public FQBaseStrategy() {}
 
@@ -51,41 +75,98 @@ public abstract class FQBaseStrategy extends MultiBucketStrategy {
     }
 
     @Override
-    @SuppressFBWarnings("ST_WRITE_TO_STATIC_FROM_INSTANCE_METHOD")
-    public void onStartedItem(LeftItem item, float weight) {
+    public synchronized void onStartedItem(LeftItem item, float weight) {
+        ensureWeights();
         maxStartedWeight = Math.max(maxStartedWeight, weight);
     }
 
-    public SorterStrategyCallback onNewItem(Queue.Item item, SorterStrategyCallback weightCallback) {
+    public synchronized SorterStrategyCallback onNewItem(Queue.Item item, SorterStrategyCallback weightCallback) {
+        ensureWeights();
+        if (Math.max(maxStartedWeight, maxAssignedWeight) > REBASE_THRESHOLD) {
+            rebase();
+        }
         int priority = weightCallback.getPriority();
-        float minimumWeightToAssign = getMinimumWeightToAssign(priority);
-        float weightToUse = getWeightToUse(priority, minimumWeightToAssign);
-        prio2weight.put(priority, weightToUse);
-        return weightCallback.setWeightSelection(weightToUse);
+        double weightToUse = getWeightToUse(priority, getVirtualStartTime(priority));
+        setLastWeight(priority, weightToUse);
+        return weightCallback.setWeightSelection((float) weightToUse);
     }
 
-    protected float getMinimumWeightToAssign(int priority) {
-        Float minWeight = prio2weight.get(priority);
-        if (minWeight == null) {
-            return maxStartedWeight;
-        }
+    /**
+     * Gets the weight the next item of a priority starts from, the later of the virtual time and the last weight
+     * assigned to the priority.
+     *
+     * @param priority the priority of the item
+     * @return the weight to add the step size of the priority to
+     */
+    protected synchronized double getVirtualStartTime(int priority) {
+        ensureWeights();
+        int index = Math.max(0, priority);
+        double minWeight = index < prio2weight.length ? prio2weight[index] : 0D;
         return Math.max(maxStartedWeight, minWeight);
     }
 
-    @SuppressFBWarnings("ST_WRITE_TO_STATIC_FROM_INSTANCE_METHOD")
+    /**
+     * @deprecated the weights are kept as doubles, use {@link #getVirtualStartTime(int)}
+     */
+    @Deprecated
+    protected float getMinimumWeightToAssign(int priority) {
+        return (float) getVirtualStartTime(priority);
+    }
+
+    protected double getWeightToUse(int priority, double minimumWeightToAssign) {
+        return minimumWeightToAssign + getStepSize(priority);
+    }
+
+    /**
+     * @deprecated the weights are kept as doubles, use {@link #getWeightToUse(int, double)}
+     */
+    @Deprecated
     protected float getWeightToUse(int priority, float minimumWeightToAssign) {
-        float weight = minimumWeightToAssign * (1F + getStepSize(priority));
-        // Protect us from values going through the roof if we run for a very
-        // long time
-        // This below might leave some jobs in the queue with very large weight
-        // this probably improbable to happen so let's do it like this for now
-        // ...
-        if (Float.POSITIVE_INFINITY == weight) {
+        return (float) getWeightToUse(priority, (double) minimumWeightToAssign);
+    }
+
+    /* package-protected for testing */
+    synchronized void setLastWeight(int priority, double weight) {
+        ensureWeights();
+        int index = Math.max(0, priority);
+        if (index >= prio2weight.length) {
+            // Priorities outside of the configured range are possible while the number of priorities changes
+            prio2weight = Arrays.copyOf(prio2weight, index + 1);
+        }
+        prio2weight[index] = weight;
+        maxAssignedWeight = Math.max(maxAssignedWeight, weight);
+    }
+
+    /**
+     * Moves the virtual time back to the start, together with the last assigned weights and the weights of
+     * the items in the queue. The weights are not moved back further than the lowest weight still in the queue.
+     */
+    /* package-protected for testing */
+    synchronized void rebase() {
+        ensureWeights();
+        double lowestWeight = maxStartedWeight;
+        List<ItemInfo> first = QueueItemCache.get().getSortedList(1);
+        if (!first.isEmpty()) {
+            lowestWeight = Math.min(lowestWeight, first.get(0).getWeight());
+        }
+        double offset = Math.floor(lowestWeight) - MIN_STARTED_WEIGHT;
+        if (offset <= 0) {
+            return;
+        }
+        maxStartedWeight -= offset;
+        maxAssignedWeight -= offset;
+        for (int i = 0; i < prio2weight.length; i++) {
+            // Priorities that are behind the virtual time start from the virtual time anyway
+            prio2weight[i] = Math.max(0D, prio2weight[i] - offset);
+        }
+        QueueItemCache.get().rebaseWeights(offset);
+    }
+
+    private void ensureWeights() {
+        if (prio2weight == null) {
+            prio2weight = new double[getNumberOfPriorities() + 1];
             maxStartedWeight = MIN_STARTED_WEIGHT;
-            prio2weight.clear();
-            return MIN_STARTED_WEIGHT;
         }
-        return weight;
     }
 
     abstract float getStepSize(int priority);
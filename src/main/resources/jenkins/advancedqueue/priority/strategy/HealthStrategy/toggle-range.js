@@ -0,0 +1,8 @@
+Behaviour.specify(".ps_health", "HealthStrategy_toggleRange", 0, function (element) {
+    const range = element.closest(".ps_healthStrategy").querySelector(".ps_healthRange");
+    const toggle = function () {
+        range.classList.toggle("jenkins-hidden", element.value !== "CUSTOM");
+    };
+    element.addEventListener("change", toggle);
+    toggle();
+});
@@ -0,0 +1,92 @@
+package jenkins.advancedqueue;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+
+import hudson.model.Node;
+import hudson.model.Queue;
+import java.util.Calendar;
+import java.util.Collections;
+import jenkins.advancedqueue.sorter.PrioritySnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.MockedStatic;
+
+class ExecutorReservationDispatcherTest {
+
+    private final ExecutorReservationDispatcher dispatcher = new ExecutorReservationDispatcher();
+
+    @Test
+    void lowPrioritiesLeaveTheReservedExecutors() {
+        // 20% of 10 executors are kept for priorities 1 and 2, 3 of the 5 idle ones can be handed out
+        ExecutorReservationDispatcher.Reservation reservation = reservation(2, 20, 10, 5);
+
+        assertNull(reservation.canTake(1, 3));
+        assertNull(reservation.canTake(2, 3));
+        assertNull(reservation.canTake(3, 3));
+        assertNotNull(reservation.canTake(4, 3));
+        // The reserved executors are still there for the high priorities
+        assertNull(reservation.canTake(5, 1));
+        assertNull(reservation.canTake(6, 2));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1, 1", "2, 2", "4, 4", "5, 5"})
+    void smallPoolsKeepAnExecutor(int totalExecutors, int idleExecutors) {
+        // Rounded up, any percentage keeps at least one executor
+        ExecutorReservationDispatcher.Reservation reservation =
+                reservation(1, 10, totalExecutors, idleExecutors);
+
+        for (int i = 0; i < idleExecutors - 1; i++) {
+            assertNull(reservation.canTake(i, 2));
+        }
+        assertNotNull(reservation.canTake(idleExecutors, 2));
+        assertNull(reservation.canTake(idleExecutors + 1, 1));
+    }
+
+    @Test
+    void itemAskedForSeveralNodesIsCountedOnce() {
+        ExecutorReservationDispatcher.Reservation reservation = reservation(1, 50, 4, 3);
+
+        assertNull(reservation.canTake(1, 2));
+        assertNull(reservation.canTake(1, 2));
+        assertNull(reservation.canTake(1, 2));
+        assertNotNull(reservation.canTake(2, 2));
+    }
+
+    @Test
+    void nothingIsHeldBackWithoutAPass() {
+        assertNull(dispatcher.canTake(1));
+    }
+
+    @Test
+    void flyweightTasksAreNeverHeldBack() {
+        Queue.BuildableItem item = new Queue.BuildableItem(new Queue.WaitingItem(
+                Calendar.getInstance(), mock(Queue.FlyweightTask.class), Collections.emptyList()));
+        Queue.BuildableItem other = new Queue.BuildableItem(
+                new Queue.WaitingItem(Calendar.getInstance(), mock(Queue.Task.class), Collections.emptyList()));
+        Node node = mock(Node.class);
+        // Every executor is busy, only the reserved priorities would get one
+        dispatcher.onQueuePass(1, 50, 2, 0);
+
+        try (MockedStatic<PrioritySnapshot> mockedSnapshot = mockStatic(PrioritySnapshot.class)) {
+            PrioritySnapshot snapshot = mock(PrioritySnapshot.class);
+            mockedSnapshot.when(PrioritySnapshot::get).thenReturn(snapshot);
+            when(snapshot.getPriority(anyLong())).thenReturn(3);
+
+            assertNull(dispatcher.canTake(node, item));
+            assertNotNull(dispatcher.canTake(node, other));
+        }
+    }
+
+    private ExecutorReservationDispatcher.Reservation reservation(
+            int reservedPriorities, int percentage, int totalExecutors, int idleExecutors) {
+        dispatcher.onQueuePass(reservedPriorities, percentage, totalExecutors, idleExecutors);
+        return dispatcher.getReservation();
+    }
+}
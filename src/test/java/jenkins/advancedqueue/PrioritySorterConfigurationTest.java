@@ -0,0 +1,37 @@
+package jenkins.advancedqueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import hudson.model.FreeStyleProject;
+import java.io.File;
+import jenkins.advancedqueue.priority.strategy.PriorityJobProperty;
+import jenkins.advancedqueue.sorter.SorterStrategy;
+import jenkins.advancedqueue.sorter.strategy.AbsoluteStrategy;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class PrioritySorterConfigurationTest {
+
+    @Test
+    void changingTheNumberOfPrioritiesDoesNotSaveTheJobs(JenkinsRule j) throws Exception {
+        PrioritySorterConfiguration configuration = PrioritySorterConfiguration.get();
+        SorterStrategy previous = configuration.getStrategy();
+        try {
+            configuration.setStrategy(new AbsoluteStrategy(5, 3));
+            FreeStyleProject project = j.createFreeStyleProject();
+            project.addProperty(new PriorityJobProperty(true, 5));
+            File configFile = project.getConfigFile().getFile();
+            long lastModified = configFile.lastModified();
+
+            configuration.setStrategy(new AbsoluteStrategy(10, 5));
+
+            assertEquals(lastModified, configFile.lastModified());
+            // Scaled from the previous number of priorities to the new one
+            assertEquals(10, project.getProperty(PriorityJobProperty.class).getPriority());
+        } finally {
+            configuration.setStrategy(previous);
+        }
+    }
+}
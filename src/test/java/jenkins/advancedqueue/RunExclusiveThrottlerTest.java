@@ -0,0 +1,95 @@
+package jenkins.advancedqueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.queue.CauseOfBlockage;
+import org.junit.jupiter.api.Test;
+
+class RunExclusiveThrottlerTest {
+
+    private final RunExclusiveThrottler throttler = new RunExclusiveThrottler();
+
+    @Test
+    void nothingIsBlockedWithoutExclusiveRuns() {
+        assertFalse(throttler.isAnyRunExclusive());
+        assertNull(throttler.canRun(1));
+        assertNull(throttler.canRun(null));
+    }
+
+    @Test
+    void onlyTheExclusiveJobGroupRuns() {
+        Run<?, ?> run = mockRun("folder/job", 1);
+        throttler.onStarted(run, 1);
+
+        assertTrue(throttler.isAnyRunExclusive());
+        assertNull(throttler.canRun(1));
+        CauseOfBlockage blockage = throttler.canRun(2);
+        assertNotNull(blockage);
+        assertEquals("Run Exclusive (folder/job)", blockage.getShortDescription());
+        // The blockage is not created for every item
+        assertSame(blockage, throttler.canRun(null));
+
+        throttler.onCompleted(run);
+        assertFalse(throttler.isAnyRunExclusive());
+        assertNull(throttler.canRun(2));
+    }
+
+    @Test
+    void severalExclusiveJobGroupsRunTogether() {
+        Run<?, ?> first = mockRun("a/job", 1);
+        Run<?, ?> second = mockRun("b/job", 1);
+        throttler.onStarted(first, 1);
+        throttler.onStarted(second, 2);
+
+        assertNull(throttler.canRun(1));
+        assertNull(throttler.canRun(2));
+        assertNotNull(throttler.canRun(3));
+
+        throttler.onCompleted(second);
+        assertNull(throttler.canRun(1));
+        assertEquals("Run Exclusive (a/job)", throttler.canRun(2).getShortDescription());
+    }
+
+    @Test
+    void jobsWithTheSameNameInOtherFoldersAreTrackedApart() {
+        Run<?, ?> first = mockRun("a/job", 1);
+        Run<?, ?> second = mockRun("b/job", 1);
+        throttler.onStarted(first, 1);
+        throttler.onStarted(second, 1);
+
+        throttler.onCompleted(first);
+        assertTrue(throttler.isAnyRunExclusive());
+        assertNotNull(throttler.canRun(2));
+
+        throttler.onCompleted(second);
+        assertFalse(throttler.isAnyRunExclusive());
+    }
+
+    @Test
+    void runsThatWereNotExclusiveAreIgnored() {
+        Run<?, ?> exclusive = mockRun("job", 1);
+        throttler.onStarted(exclusive, 1);
+
+        throttler.onCompleted(mockRun("job", 2));
+        assertNotNull(throttler.canRun(2));
+    }
+
+    private static Run<?, ?> mockRun(String fullName, int number) {
+        Job<?, ?> job = mock(Job.class);
+        when(job.getFullName()).thenReturn(fullName);
+        Run<?, ?> run = mock(Run.class);
+        doReturn(job).when(run).getParent();
+        when(run.getExternalizableId()).thenReturn(fullName + "#" + number);
+        return run;
+    }
+}
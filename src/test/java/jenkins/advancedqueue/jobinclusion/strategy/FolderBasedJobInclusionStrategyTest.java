@@ -4,6 +4,8 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import com.cloudbees.hudson.plugins.folder.Folder;
 import hudson.model.FreeStyleProject;
@@ -69,24 +71,33 @@ class FolderBasedJobInclusionStrategyTest {
     }
 
     @Test
-    void contains() throws Exception {
-        FreeStyleProject project = this.j.createFreeStyleProject("testFolder_jobName");
-
-        assertTrue(strategy.contains(decisionLogger, project));
+    void contains() {
+        assertTrue(strategy.contains(decisionLogger, mockJob("testFolder/jobName")));
     }
 
     @Test
-    void containsReturnsFalseForJobNotInFolder() throws Exception {
-        FreeStyleProject project = j.createFreeStyleProject("otherFolder_jobName");
+    void containsReturnsFalseForJobNotInFolder() {
+        assertFalse(strategy.contains(decisionLogger, mockJob("otherFolder/jobName")));
+    }
 
-        assertFalse(strategy.contains(decisionLogger, project));
+    @Test
+    void containsReturnsTrueForJobInSubFolder() {
+        assertTrue(strategy.contains(decisionLogger, mockJob("testFolder/subFolder/jobName")));
     }
 
     @Test
-    void containsReturnsTrueForJobInSubFolder() throws Exception {
-        FreeStyleProject project = j.createFreeStyleProject("testFolder_subFolder_jobName");
+    void containsMatchesWholeFolderNames() {
+        assertFalse(strategy.contains(decisionLogger, mockJob("testFolder_jobName")));
+        assertFalse(strategy.contains(decisionLogger, mockJob("testFolder_other/jobName")));
+        assertFalse(strategy.contains(decisionLogger, mockJob("testFolder")));
+        FolderBasedJobInclusionStrategy trailingSlash = new FolderBasedJobInclusionStrategy("testFolder/");
+        assertTrue(trailingSlash.contains(decisionLogger, mockJob("testFolder/jobName")));
+    }
 
-        assertTrue(strategy.contains(decisionLogger, project));
+    private static FreeStyleProject mockJob(String fullName) {
+        FreeStyleProject job = mock(FreeStyleProject.class);
+        when(job.getFullName()).thenReturn(fullName);
+        return job;
     }
 
     @Test
@@ -2,6 +2,8 @@ package jenkins.advancedqueue.jobinclusion.strategy;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
@@ -84,4 +86,44 @@ class FolderPropertyLoaderTest {
         assertNull(result);
         assertThat(loggedMessages, hasItem("No match ..."));
     }
+
+    @Test
+    void getJobGroupName_followsFolderChanges() throws Exception {
+        Folder parent = j.createProject(Folder.class, "parentFolder");
+        Folder child = parent.createProject(Folder.class, "childFolder");
+        FreeStyleProject nested = child.createProject(FreeStyleProject.class, "nestedProject");
+        assertNull(FolderPropertyLoader.getJobGroupName(decisionLogger, nested));
+
+        parent.getProperties().add(new JobInclusionFolderProperty(true, "ParentGroup"));
+        assertEquals("ParentGroup", FolderPropertyLoader.getJobGroupName(decisionLogger, nested));
+
+        child.getProperties().add(new JobInclusionFolderProperty(true, "ChildGroup"));
+        assertEquals("ChildGroup", FolderPropertyLoader.getJobGroupName(decisionLogger, nested));
+
+        child.getProperties().clear();
+        assertEquals("ParentGroup", FolderPropertyLoader.getJobGroupName(decisionLogger, nested));
+        assertThat(loggedMessages, hasItem("JobGroup is enabled, with JobGroup [ParentGroup] ..."));
+    }
+
+    @Test
+    void getJobGroupName_keepsOtherFoldersWhenAFolderChanges() throws Exception {
+        Folder team = j.createProject(Folder.class, "team");
+        Folder otherTeam = j.createProject(Folder.class, "team-other");
+        FreeStyleProject teamProject = team.createProject(FreeStyleProject.class, "teamProject");
+        FreeStyleProject otherProject = otherTeam.createProject(FreeStyleProject.class, "otherProject");
+        otherTeam.getProperties().add(new JobInclusionFolderProperty(true, "OtherGroup"));
+        assertNull(FolderPropertyLoader.getJobGroupName(decisionLogger, teamProject));
+        assertEquals("OtherGroup", FolderPropertyLoader.getJobGroupName(decisionLogger, otherProject));
+
+        team.getProperties().add(new JobInclusionFolderProperty(true, "TeamGroup"));
+        // Saving without changing the JobGroup keeps what was found
+        otherTeam.save();
+        team.setDescription("changed");
+        loggedMessages.clear();
+
+        assertEquals("OtherGroup", FolderPropertyLoader.getJobGroupName(decisionLogger, otherProject));
+        assertThat(loggedMessages, not(hasItem(startsWith("Evaluating Folder"))));
+        assertEquals("TeamGroup", FolderPropertyLoader.getJobGroupName(decisionLogger, teamProject));
+        assertThat(loggedMessages, hasItem(startsWith("Evaluating Folder")));
+    }
 }
@@ -0,0 +1,54 @@
+package jenkins.advancedqueue.jobinclusion.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class FolderTrieTest {
+
+    @Test
+    void emptyTrieMatchesNothing() {
+        FolderTrie trie = new FolderTrie();
+        assertTrue(trie.isEmpty());
+        assertEquals(FolderTrie.NO_MATCH, trie.firstMatch("team-a/job"));
+    }
+
+    @Test
+    void matchesWholeSegments() {
+        FolderTrie trie = new FolderTrie();
+        trie.put("team-a", 0);
+        assertFalse(trie.isEmpty());
+
+        assertEquals(0, trie.firstMatch("team-a/job"));
+        assertEquals(0, trie.firstMatch("team-a/sub/job"));
+        assertEquals(FolderTrie.NO_MATCH, trie.firstMatch("team-ab/job"));
+        assertEquals(FolderTrie.NO_MATCH, trie.firstMatch("team-a"));
+        assertEquals(FolderTrie.NO_MATCH, trie.firstMatch("other/team-a/job"));
+    }
+
+    @Test
+    void returnsTheSmallestValue() {
+        FolderTrie trie = new FolderTrie();
+        trie.put("org/team/repo", 1);
+        trie.put("org/team", 3);
+        trie.put("org", 5);
+        trie.put("org/team", 2);
+
+        assertEquals(1, trie.firstMatch("org/team/repo/main"));
+        assertEquals(2, trie.firstMatch("org/team/other/main"));
+        assertEquals(5, trie.firstMatch("org/job"));
+    }
+
+    @Test
+    void emptyFolderContainsAllJobs() {
+        FolderTrie trie = new FolderTrie();
+        trie.put("", 4);
+        trie.put("team-a/", 2);
+        trie.put(null, 0);
+
+        assertEquals(4, trie.firstMatch("job"));
+        assertEquals(2, trie.firstMatch("team-a/job"));
+    }
+}
@@ -0,0 +1,127 @@
+package jenkins.advancedqueue.jobinclusion.strategy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.ListView;
+import hudson.util.FormValidation;
+import java.util.ArrayList;
+import java.util.List;
+import jenkins.advancedqueue.DecisionLogger;
+import jenkins.model.Jenkins;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class ViewBasedJobInclusionStrategyTest {
+
+    private static JenkinsRule j;
+
+    private static FreeStyleProject project;
+    private static DecisionLogger decisionLogger;
+    private static List<String> loggedMessages;
+
+    @BeforeAll
+    static void beforeAll(JenkinsRule rule) throws Exception {
+        j = rule;
+        project = j.createFreeStyleProject("view-based-job");
+        decisionLogger = new DecisionLogger() {
+            @Override
+            public DecisionLogger addDecisionLog(int indent, String log) {
+                loggedMessages.add(log);
+                return this;
+            }
+        };
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        loggedMessages = new ArrayList<>();
+    }
+
+    @Test
+    void containsJobsMatchingTheFilter() {
+        ViewBasedJobInclusionStrategy strategy = new ViewBasedJobInclusionStrategy("All");
+        strategy.setJobFilter(new ViewBasedJobInclusionStrategy.JobPattern("view-.*"));
+        assertTrue(strategy.contains(decisionLogger, project));
+
+        strategy.setJobPattern("other-.*");
+        assertFalse(strategy.contains(decisionLogger, project));
+        assertThat(
+                loggedMessages,
+                contains(
+                        "Using filter ...",
+                        "Job is matching the filter ...",
+                        "Using filter ...",
+                        "Job is not matching the filter ..."));
+    }
+
+    @Test
+    void invalidFilterMatchesNoJobs() {
+        ViewBasedJobInclusionStrategy strategy = new ViewBasedJobInclusionStrategy("All");
+        strategy.setJobFilter(new ViewBasedJobInclusionStrategy.JobPattern("view-["));
+        assertFalse(strategy.contains(decisionLogger, project));
+        assertThat(loggedMessages, contains("Using filter ...", "Filter has syntax error"));
+    }
+
+    @Test
+    void filterIsCompiledWhenLoaded() {
+        ViewBasedJobInclusionStrategy strategy = new ViewBasedJobInclusionStrategy("All");
+        strategy.setJobFilter(new ViewBasedJobInclusionStrategy.JobPattern("view-.*"));
+
+        ViewBasedJobInclusionStrategy loaded = (ViewBasedJobInclusionStrategy)
+                Jenkins.XSTREAM2.fromXML(Jenkins.XSTREAM2.toXML(strategy));
+        assertEquals("view-.*", loaded.getJobPattern());
+        assertTrue(loaded.contains(decisionLogger, project));
+    }
+
+    @Test
+    void viewChangesAreSeen() throws Exception {
+        FreeStyleProject listed = j.createFreeStyleProject("listed-job");
+        ListView view = new ListView("membership-view", j.jenkins);
+        j.jenkins.addView(view);
+        view.add(listed);
+        ViewBasedJobInclusionStrategy strategy = new ViewBasedJobInclusionStrategy("membership-view");
+
+        assertTrue(strategy.contains(decisionLogger, listed));
+        assertFalse(strategy.contains(decisionLogger, project));
+
+        view.remove(listed);
+        view.add(project);
+        assertFalse(strategy.contains(decisionLogger, listed));
+        assertTrue(strategy.contains(decisionLogger, project));
+    }
+
+    @Test
+    void replacedViewIsLookedUpByName() throws Exception {
+        FreeStyleProject listed = j.createFreeStyleProject("replaced-listed-job");
+        ListView view = new ListView("replaced-view", j.jenkins);
+        j.jenkins.addView(view);
+        view.add(listed);
+        ViewBasedJobInclusionStrategy strategy = new ViewBasedJobInclusionStrategy("replaced-view");
+        assertTrue(strategy.contains(decisionLogger, listed));
+
+        j.jenkins.deleteView(view);
+        ListView replacement = new ListView("replaced-view", j.jenkins);
+        j.jenkins.addView(replacement);
+        replacement.add(project);
+        assertFalse(strategy.contains(decisionLogger, listed));
+        assertTrue(strategy.contains(decisionLogger, project));
+    }
+
+    @Test
+    void doCheckJobPattern() {
+        ViewBasedJobInclusionStrategy.ViewBasedJobInclusionStrategyDescriptor descriptor =
+                (ViewBasedJobInclusionStrategy.ViewBasedJobInclusionStrategyDescriptor)
+                        j.jenkins.getDescriptorOrDie(ViewBasedJobInclusionStrategy.class);
+        assertEquals(FormValidation.Kind.OK, descriptor.doCheckJobPattern("view-.*").kind);
+        assertEquals(FormValidation.Kind.ERROR, descriptor.doCheckJobPattern("view-[").kind);
+    }
+}
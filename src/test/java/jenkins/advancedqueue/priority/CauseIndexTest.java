@@ -0,0 +1,66 @@
+package jenkins.advancedqueue.priority;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import hudson.model.Cause;
+import hudson.model.Cause.UpstreamCause;
+import hudson.model.Cause.UserIdCause;
+import hudson.model.Queue;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CauseIndexTest {
+
+    @Test
+    void causesAreFoundByExactClass() {
+        UserIdCause userIdCause = mock(UserIdCause.class);
+        Cause remoteCause = new Cause.RemoteCause("host", "note");
+        Queue.Item item = mockItem(remoteCause, userIdCause);
+
+        CauseIndex index = CauseIndex.of(item);
+        assertSame(remoteCause, index.get(Cause.RemoteCause.class));
+        assertTrue(index.contains(Cause.RemoteCause.class));
+        // Mocks are subclasses so they are not found by the class they mock
+        assertNull(index.get(UserIdCause.class));
+        assertFalse(index.contains(UpstreamCause.class));
+    }
+
+    @Test
+    void causesAreScannedOncePerEvaluatedItem() {
+        Queue.Item item = mockItem(new Cause.RemoteCause("host", "note"));
+
+        try (CauseIndex.Scope ignored = CauseIndex.open(item)) {
+            assertSame(CauseIndex.of(item), CauseIndex.of(item));
+            for (int i = 0; i < 5; i++) {
+                CauseIndex.of(item).contains(UserIdCause.class);
+                CauseIndex.of(item).get(UpstreamCause.class);
+            }
+        }
+        verify(item, times(1)).getCauses();
+    }
+
+    @Test
+    void otherItemsAndClosedScopesGetTheirOwnIndex() {
+        Queue.Item item = mockItem();
+        Queue.Item other = mockItem();
+
+        try (CauseIndex.Scope ignored = CauseIndex.open(item)) {
+            assertNotSame(CauseIndex.of(other), CauseIndex.of(other));
+        }
+        assertNotSame(CauseIndex.of(item), CauseIndex.of(item));
+    }
+
+    private static Queue.Item mockItem(Cause... causes) {
+        Queue.Item item = mock(Queue.Item.class);
+        when(item.getCauses()).thenReturn(List.of(causes));
+        return item;
+    }
+}
@@ -10,6 +10,7 @@ import java.io.IOException;
 import java.util.Calendar;
 import java.util.Collections;
 import jenkins.advancedqueue.PrioritySorterConfiguration;
+import jenkins.advancedqueue.priority.PriorityStrategy;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.jvnet.hudson.test.JenkinsRule;
@@ -85,4 +86,22 @@ class BuildParameterStrategyTest {
 
         assertFalse(strategy.isApplicable(item));
     }
+
+    @Test
+    void getPriorityIfApplicable_returnsPriorityFromParameter() {
+        StringParameterValue param = new StringParameterValue("priority", "5");
+        ParametersAction action = new ParametersAction(param);
+        Queue.Item item = new Queue.WaitingItem(Calendar.getInstance(), project, Collections.singletonList(action));
+
+        assertEquals(5, strategy.getPriorityIfApplicable(item));
+    }
+
+    @Test
+    void getPriorityIfApplicable_returnsNotApplicableWhenParameterIsNotANumber() {
+        StringParameterValue param = new StringParameterValue("priority", "not-a-number");
+        ParametersAction action = new ParametersAction(param);
+        Queue.Item item = new Queue.WaitingItem(Calendar.getInstance(), project, Collections.singletonList(action));
+
+        assertEquals(PriorityStrategy.NOT_APPLICABLE, strategy.getPriorityIfApplicable(item));
+    }
 }
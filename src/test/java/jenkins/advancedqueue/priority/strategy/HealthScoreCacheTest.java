@@ -0,0 +1,122 @@
+package jenkins.advancedqueue.priority.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import hudson.model.HealthReport;
+import hudson.model.Job;
+import hudson.util.RunList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import jenkins.util.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HealthScoreCacheTest {
+
+    private final HealthScoreCache cache = HealthScoreCache.get();
+
+    private final List<Runnable> refreshes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        cache.setExecutor(refreshes::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.setExecutor(Timer.get());
+    }
+
+    @Test
+    void scoreIsFoundOnce() {
+        Job<?, ?> job = mockJob(true, 75);
+
+        assertEquals(75, cache.getScore(job));
+        assertEquals(75, cache.getScore(job));
+        verify(job, times(1)).getBuildHealth();
+    }
+
+    @Test
+    void jobWithoutBuildsHasNoScore() {
+        Job<?, ?> job = mockJob(false, 75);
+
+        assertEquals(HealthScoreCache.NO_BUILDS, cache.getScore(job));
+        verify(job, times(0)).getBuildHealth();
+    }
+
+    @Test
+    void refreshFindsTheNewScore() {
+        Job<?, ?> job = mockJob(true, 75);
+        assertEquals(75, cache.getScore(job));
+
+        HealthReport healthReport = job.getBuildHealth();
+        when(healthReport.getScore()).thenReturn(20);
+        cache.refresh(job);
+        assertEquals(20, cache.getScore(job));
+    }
+
+    @Test
+    void refreshIgnoresJobsNotLookedAt() {
+        Job<?, ?> job = mockJob(true, 75);
+
+        cache.refresh(job);
+        verify(job, times(0)).getBuildHealth();
+    }
+
+    @Test
+    void invalidatedScoreIsFoundAgainInTheBackground() {
+        Job<?, ?> job = mockJob(true, 75);
+        assertEquals(75, cache.getScore(job));
+        HealthReport healthReport = job.getBuildHealth();
+        when(healthReport.getScore()).thenReturn(30);
+
+        cache.invalidate(job);
+        // The last known score is used while the new one is found
+        assertEquals(75, cache.getScore(job));
+        assertEquals(75, cache.getScore(job));
+        assertEquals(1, refreshes.size());
+
+        refreshes.get(0).run();
+        assertEquals(30, cache.getScore(job));
+        assertEquals(1, refreshes.size());
+    }
+
+    @Test
+    void updatedJobScoreIsFoundAgain() {
+        Job<?, ?> job = mockJob(true, 75);
+        assertEquals(75, cache.getScore(job));
+
+        HealthReport healthReport = job.getBuildHealth();
+        when(healthReport.getScore()).thenReturn(40);
+        new HealthScoreCache.HealthScoreItemListener().onUpdated(job);
+        assertEquals(75, cache.getScore(job));
+        refreshes.remove(0).run();
+        assertEquals(40, cache.getScore(job));
+
+        when(healthReport.getScore()).thenReturn(10);
+        new HealthScoreCache.HealthScoreSaveableListener().onChange(job, null);
+        assertEquals(40, cache.getScore(job));
+        refreshes.remove(0).run();
+        assertEquals(10, cache.getScore(job));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Job<?, ?> mockJob(boolean hasBuilds, int score) {
+        Job<?, ?> job = mock(Job.class);
+        RunList runList = mock(RunList.class);
+        Iterator iterator = mock(Iterator.class);
+        when(job.getBuilds()).thenReturn(runList);
+        when(runList.iterator()).thenReturn(iterator);
+        when(iterator.hasNext()).thenReturn(hasBuilds);
+        HealthReport healthReport = mock(HealthReport.class);
+        when(healthReport.getScore()).thenReturn(score);
+        when(job.getBuildHealth()).thenReturn(healthReport);
+        return job;
+    }
+}
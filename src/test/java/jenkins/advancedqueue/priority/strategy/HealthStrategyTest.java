@@ -1,5 +1,6 @@
 package jenkins.advancedqueue.priority.strategy;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -10,11 +11,15 @@ import hudson.model.HealthReport;
 import hudson.model.Job;
 import hudson.model.Queue.BuildableItem;
 import hudson.model.Queue.Task;
+import hudson.util.FormValidation;
 import hudson.util.RunList;
 import java.lang.reflect.Field;
 import java.util.Iterator;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 class HealthStrategyTest {
     private BuildableItem mockedBuildableItem;
@@ -71,6 +76,63 @@ class HealthStrategyTest {
         }
     }
 
+    static Object[][] customData() {
+        return new Object[][] {
+            {"SAME", 50, 70, 50, true},
+            {"SAME", 50, 70, 70, true},
+            {"SAME", 50, 70, 49, false},
+            {"SAME", 50, 70, 71, false},
+            {"BETTER", 50, 70, 100, true},
+            {"BETTER", 50, 70, 49, false},
+            {"WORSE", 50, 70, 0, true},
+            {"WORSE", 50, 70, 71, false}
+        };
+    }
+
+    @ParameterizedTest(name = "{0} - {1} to {2} - actual: {3} - concludes: {4}")
+    @MethodSource("customData")
+    void assertCustomHealth(String selection, int minimumScore, int maximumScore, int mockedHealth, boolean expected)
+            throws Exception {
+        HealthStrategy strategy = new HealthStrategy(0, selection, HealthStrategy.CUSTOM);
+        strategy.setMinimumScore(minimumScore);
+        strategy.setMaximumScore(maximumScore);
+        setMockedJobHealthTo(mockedHealth);
+        initializeJobRunList();
+
+        assertEquals(expected, strategy.isApplicable(this.mockedBuildableItem));
+    }
+
+    @ParameterizedTest(name = "inverted range - actual: {0} - concludes: {1}")
+    @CsvSource({"19,false", "20,true", "60,true", "61,false"})
+    void invertedCustomRangeIsPutInOrder(int mockedHealth, boolean expected) throws Exception {
+        HealthStrategy strategy = new HealthStrategy(0, "SAME", HealthStrategy.CUSTOM);
+        strategy.setMinimumScore(60);
+        strategy.setMaximumScore(20);
+        setMockedJobHealthTo(mockedHealth);
+        initializeJobRunList();
+
+        assertEquals(expected, strategy.isApplicable(this.mockedBuildableItem));
+    }
+
+    @Test
+    void customRangeIsValidated() {
+        assertEquals(FormValidation.Kind.OK, HealthStrategy.checkScores("20", "20", "60").kind);
+        assertEquals(FormValidation.Kind.ERROR, HealthStrategy.checkScores("101", "0", "101").kind);
+        assertEquals(FormValidation.Kind.ERROR, HealthStrategy.checkScores("x", "x", "60").kind);
+        assertEquals(FormValidation.Kind.ERROR, HealthStrategy.checkScores("60", "60", "20").kind);
+    }
+
+    @ParameterizedTest(name = "{0} - job without builds")
+    @ValueSource(strings = {"SAME", "BETTER", "WORSE"})
+    void jobWithoutBuildsIsNotApplicable(String selection) throws Exception {
+        HealthStrategy strategy = new HealthStrategy(0, selection, "HEALTH_0_TO_20");
+        setMockedJobHealthTo(0);
+        when(this.mockedJob.getBuilds()).thenReturn(mock(RunList.class));
+        when(this.mockedJob.getBuilds().iterator()).thenReturn(mock(Iterator.class));
+
+        assertFalse(strategy.isApplicable(this.mockedBuildableItem));
+    }
+
     private void setMockedJobHealthTo(int health) throws NoSuchFieldException, IllegalAccessException {
         this.mockedBuildableItem = mock(BuildableItem.class);
         this.mockedJob = mock(Job.class, withSettings().extraInterfaces(Task.class));
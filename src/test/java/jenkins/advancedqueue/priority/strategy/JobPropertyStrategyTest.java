@@ -8,6 +8,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import hudson.model.FreeStyleProject;
 import hudson.model.Queue;
 import jenkins.advancedqueue.PrioritySorterConfiguration;
+import jenkins.advancedqueue.priority.PriorityStrategy;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -101,4 +102,21 @@ class JobPropertyStrategyTest {
     void getPriorityTestFreeStyleProjectWithUnusedPriorityProperty() {
         assertThat(strategy.getPriority(projectWithUnusedProperty.getQueueItem()), is(defaultPriority));
     }
+
+    @Test
+    void getPriorityIfApplicableTestFreeStyleProject() {
+        assertThat(strategy.getPriorityIfApplicable(project.getQueueItem()), is(PriorityStrategy.NOT_APPLICABLE));
+    }
+
+    @Test
+    void getPriorityIfApplicableTestFreeStyleProjectWithPriorityProperty() {
+        assertThat(strategy.getPriorityIfApplicable(projectWithProperty.getQueueItem()), is(jobPriority));
+    }
+
+    @Test
+    void getPriorityIfApplicableTestFreeStyleProjectWithUnusedPriorityProperty() {
+        assertThat(
+                strategy.getPriorityIfApplicable(projectWithUnusedProperty.getQueueItem()),
+                is(PriorityStrategy.NOT_APPLICABLE));
+    }
 }
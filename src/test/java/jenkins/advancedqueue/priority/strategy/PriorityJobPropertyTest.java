@@ -13,6 +13,8 @@ import jenkins.advancedqueue.JobGroup;
 import jenkins.advancedqueue.PriorityConfiguration;
 import jenkins.advancedqueue.PrioritySorterConfiguration;
 import jenkins.advancedqueue.jobinclusion.strategy.ViewBasedJobInclusionStrategy;
+import jenkins.advancedqueue.sorter.SorterStrategy;
+import jenkins.advancedqueue.sorter.strategy.AbsoluteStrategy;
 import net.sf.json.JSONObject;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -74,6 +76,30 @@ class PriorityJobPropertyTest {
         assertFalse(descriptor.getPriorities().isEmpty());
     }
 
+    @Test
+    void priorityIsScaledWhenTheNumberOfPrioritiesChanges() {
+        PrioritySorterConfiguration configuration = PrioritySorterConfiguration.get();
+        SorterStrategy previous = configuration.getStrategy();
+        try {
+            configuration.setStrategy(new AbsoluteStrategy(5, 3));
+            PriorityJobProperty lowest = new PriorityJobProperty(true, 5);
+
+            configuration.setStrategy(new AbsoluteStrategy(10, 5));
+            assertEquals(10, lowest.getPriority());
+            PriorityJobProperty middle = new PriorityJobProperty(true, 5);
+            assertEquals(5, middle.getPriority());
+
+            configuration.setStrategy(new AbsoluteStrategy(5, 3));
+            // Scaled from the number of priorities they were set under
+            assertEquals(5, lowest.getPriority());
+            assertEquals(2, middle.getPriority());
+            // A number of priorities used before gets its epoch back instead of a new one
+            assertEquals(lowest.getScaleEpoch(), configuration.getScaleEpoch());
+        } finally {
+            configuration.setStrategy(previous);
+        }
+    }
+
     private final Random random = new Random();
 
     private JobGroup createJobGroup(String viewName) {
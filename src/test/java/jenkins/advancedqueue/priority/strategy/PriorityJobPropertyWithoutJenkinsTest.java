@@ -0,0 +1,19 @@
+package jenkins.advancedqueue.priority.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class PriorityJobPropertyWithoutJenkinsTest {
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void propertyCanBeCreatedWithoutJenkins() {
+        PriorityJobProperty property = new PriorityJobProperty(true, 4);
+
+        assertTrue(property.getUseJobPriority());
+        assertEquals(4, property.getPriority());
+        assertEquals(4, property.priority);
+    }
+}
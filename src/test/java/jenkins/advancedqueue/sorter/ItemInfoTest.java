@@ -39,6 +39,9 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.advancedqueue.DecisionLogMessage;
 import jenkins.advancedqueue.priority.strategy.JobPropertyStrategy;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -322,4 +325,47 @@ class ItemInfoTest {
         // Should complete 1000 operations in reasonable time
         assertTrue(durationMs < 100, "String.join approach should be efficient");
     }
+
+    @Test
+    public void testStructuredDecisionLogIsSkippedWhenNotLogged() {
+        Logger logger = Logger.getLogger("PrioritySorter.Queue.Items");
+        Level level = logger.getLevel();
+        try {
+            logger.setLevel(Level.FINE);
+            ItemInfo itemInfo = new ItemInfo(1L, 10L, "structured-log-job");
+            itemInfo.addDecisionLog(0, DecisionLogMessage.EVALUATING_JOB_GROUP, 1);
+            itemInfo.addDecisionLog(2, DecisionLogMessage.EVALUATING_STRATEGIES);
+
+            assertEquals("", itemInfo.getDescisionLog(), "Structured entries should not be kept");
+        } finally {
+            logger.setLevel(level);
+        }
+    }
+
+    @Test
+    public void testStructuredDecisionLogIsRenderedWhenLogged() throws Exception {
+        Logger logger = Logger.getLogger("PrioritySorter.Queue.Items");
+        Level level = logger.getLevel();
+        try {
+            logger.setLevel(Level.FINER);
+            FreeStyleProject project = jenkins.createFreeStyleProject("structured-log-" + System.nanoTime());
+            ItemInfo itemInfo = new ItemInfo(2L, 10L, project.getName());
+            itemInfo.addDecisionLog(0, DecisionLogMessage.EVALUATING_JOB_GROUP, 1);
+            itemInfo.addDecisionLog(3, DecisionLogMessage.FOLDER_EVALUATING, project);
+            itemInfo.addDecisionLog(3, DecisionLogMessage.EVALUATING_STRATEGY, new JobPropertyStrategy());
+            itemInfo.addDecisionLog(2, "Plain entry");
+
+            String[] lines = itemInfo.getDescisionLog().split("\n");
+            assertEquals(4, lines.length);
+            assertEquals("  Evaluating JobGroup [1] ...", lines[0]);
+            assertEquals("        Evaluating Folder [" + project.getFullName() + "] ...", lines[1]);
+            assertEquals(
+                    "        Evaluating strategy ["
+                            + new JobPropertyStrategy().getDescriptor().getDisplayName() + "] ...",
+                    lines[2]);
+            assertEquals("      Plain entry", lines[3]);
+        } finally {
+            logger.setLevel(level);
+        }
+    }
 }
@@ -0,0 +1,65 @@
+package jenkins.advancedqueue.sorter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class PrioritySnapshotTest {
+
+    private static final long FIRST_ID = 2_000_000L;
+
+    private final QueueItemCache cache = QueueItemCache.get();
+
+    @AfterEach
+    void tearDown() {
+        for (long id = FIRST_ID; id < FIRST_ID + 10; id++) {
+            cache.removeItem(id);
+        }
+        PrioritySnapshot.publish(new ItemInfo[0]);
+    }
+
+    @Test
+    void itemsAreFoundWhateverTheirOrder() {
+        PrioritySnapshot snapshot = PrioritySnapshot.of(new ItemInfo[] {
+            itemInfo(FIRST_ID + 5, 3, 2), null, itemInfo(FIRST_ID, 1, 0), itemInfo(FIRST_ID + 2, 5, 1)
+        });
+
+        assertEquals(3, snapshot.size());
+        assertEquals(1, snapshot.getPriority(FIRST_ID));
+        assertEquals(0, snapshot.getJobGroupId(FIRST_ID));
+        assertEquals(5, snapshot.getPriority(FIRST_ID + 2));
+        assertEquals(1, snapshot.getJobGroupId(FIRST_ID + 2));
+        assertEquals(3, snapshot.getPriority(FIRST_ID + 5));
+        assertEquals(2, snapshot.getJobGroupId(FIRST_ID + 5));
+    }
+
+    @Test
+    void itemsNotInTheSnapshotAreLookedUpInTheCache() {
+        PrioritySnapshot snapshot = PrioritySnapshot.of(new ItemInfo[] {itemInfo(FIRST_ID, 1, 0)});
+        cache.addItem(itemInfo(FIRST_ID + 1, 4, 3));
+
+        assertEquals(4, snapshot.getPriority(FIRST_ID + 1));
+        assertEquals(3, snapshot.getJobGroupId(FIRST_ID + 1));
+        assertEquals(PrioritySnapshot.UNKNOWN, snapshot.getPriority(FIRST_ID + 2));
+        assertEquals(PrioritySnapshot.UNKNOWN, snapshot.getJobGroupId(FIRST_ID + 2));
+    }
+
+    @Test
+    void snapshotDoesNotChangeWithTheCache() {
+        ItemInfo itemInfo = itemInfo(FIRST_ID, 2, 1);
+        cache.addItem(itemInfo);
+        PrioritySnapshot.publish(new ItemInfo[] {itemInfo});
+        PrioritySnapshot snapshot = PrioritySnapshot.get();
+
+        cache.addItem(itemInfo(FIRST_ID, 4, 3));
+        assertEquals(2, snapshot.getPriority(FIRST_ID));
+        assertEquals(1, snapshot.getJobGroupId(FIRST_ID));
+    }
+
+    private static ItemInfo itemInfo(long itemId, int priority, int jobGroupId) {
+        ItemInfo itemInfo = new ItemInfo(itemId, 10L, "snapshot-job");
+        itemInfo.setPrioritySelection(priority, jobGroupId, null);
+        return itemInfo;
+    }
+}
@@ -0,0 +1,140 @@
+package jenkins.advancedqueue.sorter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class QueueItemCacheTest {
+
+    private static final long FIRST_ID = 1_000_000L;
+    private static final int ITEM_COUNT = 50;
+
+    private final QueueItemCache cache = QueueItemCache.get();
+
+    @AfterEach
+    void tearDown() {
+        for (long id = FIRST_ID; id < FIRST_ID + ITEM_COUNT; id++) {
+            cache.removeItem(id);
+        }
+        cache.configureJobCache(
+                QueueItemCache.DEFAULT_JOB_CACHE_SIZE, QueueItemCache.DEFAULT_JOB_CACHE_RETENTION_HOURS);
+    }
+
+    @Test
+    void addGetAndRemoveItem() {
+        ItemInfo itemInfo = new ItemInfo(FIRST_ID, 10L, "cache-job");
+
+        assertSame(itemInfo, cache.addItem(itemInfo));
+        assertSame(itemInfo, cache.getItem(FIRST_ID));
+        assertSame(itemInfo, cache.getItem("cache-job"));
+        assertEquals(FIRST_ID, cache.getJobPriorityInfo("cache-job").getItemId());
+
+        assertSame(itemInfo, cache.removeItem(FIRST_ID));
+        assertNull(cache.getItem(FIRST_ID));
+        assertNull(cache.getItem("cache-job"));
+        // The priority of the last item of the job is kept
+        assertEquals(FIRST_ID, cache.getJobPriorityInfo("cache-job").getItemId());
+    }
+
+    @Test
+    void jobCacheIsBounded() {
+        cache.configureJobCache(5, 1);
+        for (int i = 0; i < 50; i++) {
+            cache.addItem(new ItemInfo(FIRST_ID + i, 10L, "bounded-job-" + i));
+        }
+
+        int found = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.getJobPriorityInfo("bounded-job-" + i) != null) {
+                found++;
+            }
+        }
+        assertTrue(found <= 5, "Expected at most 5 jobs in the cache, found " + found);
+        // Items in the queue are not affected by the job cache
+        assertEquals(FIRST_ID, cache.getItem(FIRST_ID).getItemId());
+    }
+
+    @Test
+    void jobCacheIsKeptWhenTheLimitsDoNotChange() {
+        cache.addItem(new ItemInfo(FIRST_ID, 10L, "kept-job"));
+
+        cache.configureJobCache(
+                QueueItemCache.DEFAULT_JOB_CACHE_SIZE, QueueItemCache.DEFAULT_JOB_CACHE_RETENTION_HOURS);
+        assertEquals(FIRST_ID, cache.getJobPriorityInfo("kept-job").getItemId());
+
+        cache.configureJobCache(5, 1);
+        assertNull(cache.getJobPriorityInfo("kept-job"));
+    }
+
+    @Test
+    void sortedListIsOrderedByWeight() {
+        for (int i = 0; i < 10; i++) {
+            ItemInfo itemInfo = new ItemInfo(FIRST_ID + i, 10L, "sorted-job");
+            itemInfo.setWeightSelection(10 - i);
+            cache.addItem(itemInfo);
+        }
+
+        List<ItemInfo> sorted = cache.getSortedList();
+        for (int i = 1; i < sorted.size(); i++) {
+            assertTrue(sorted.get(i - 1).compareTo(sorted.get(i)) < 0);
+        }
+    }
+
+    @Test
+    void sortedListFollowsAddAndRemove() {
+        for (int i = 0; i < 10; i++) {
+            ItemInfo itemInfo = new ItemInfo(FIRST_ID + i, 10L, "sorted-job");
+            // Below the weights of the strategies so that other items in the cache come later
+            itemInfo.setWeightSelection(i - 100);
+            cache.addItem(itemInfo);
+        }
+        cache.removeItem(FIRST_ID);
+        // Re-adding an item replaces the old entry in the index
+        ItemInfo readded = new ItemInfo(FIRST_ID + 1, 10L, "sorted-job");
+        readded.setWeightSelection(100);
+        cache.addItem(readded);
+
+        List<ItemInfo> top = cache.getSortedList(3);
+        assertEquals(3, top.size());
+        assertEquals(FIRST_ID + 2, top.get(0).getItemId());
+        assertEquals(FIRST_ID + 3, top.get(1).getItemId());
+        assertEquals(FIRST_ID + 4, top.get(2).getItemId());
+
+        List<ItemInfo> sorted = cache.getSortedList().stream()
+                .filter(info -> info.getJobName().equals("sorted-job"))
+                .toList();
+        assertEquals(9, sorted.size());
+        assertSame(readded, sorted.get(sorted.size() - 1));
+    }
+
+    @Test
+    void rebaseWeightsKeepsTheOrder() {
+        for (int i = 0; i < 10; i++) {
+            ItemInfo itemInfo = new ItemInfo(FIRST_ID + i, 10L, "rebased-job");
+            itemInfo.setWeightSelection(2_000_000 - i);
+            cache.addItem(itemInfo);
+        }
+
+        cache.rebaseWeights(1_000_000);
+
+        List<ItemInfo> sorted = cache.getSortedList().stream()
+                .filter(info -> info.getJobName().equals("rebased-job"))
+                .toList();
+        assertEquals(10, sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(FIRST_ID + 9 - i, sorted.get(i).getItemId());
+            assertEquals(1_000_000 - 9 + i, sorted.get(i).getWeight(), 0F);
+        }
+        // The index can still find the moved items
+        assertSame(sorted.get(0), cache.removeItem(FIRST_ID + 9));
+        long remaining = cache.getSortedList().stream()
+                .filter(info -> info.getJobName().equals("rebased-job"))
+                .count();
+        assertEquals(9, remaining);
+    }
+}
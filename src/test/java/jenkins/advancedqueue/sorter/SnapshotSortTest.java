@@ -0,0 +1,112 @@
+package jenkins.advancedqueue.sorter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.Queue;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import jenkins.advancedqueue.PrioritySorterConfiguration;
+import jenkins.advancedqueue.sorter.strategy.FQStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+/**
+ * Checks that sorting on a snapshot of the sort keys and walking the sorted index give the order of the comparator.
+ */
+@WithJenkins
+class SnapshotSortTest {
+
+    private static JenkinsRule jenkins;
+
+    private static FreeStyleProject project;
+
+    private final List<Queue.BuildableItem> created = new ArrayList<>();
+
+    @BeforeAll
+    static void beforeAll(JenkinsRule rule) throws Exception {
+        jenkins = rule;
+        project = jenkins.createFreeStyleProject("snapshot-sort");
+        PrioritySorterConfiguration.get().setStrategy(new FQStrategy(5, 3));
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Leave the shared cache as it was for the other tests
+        for (Queue.BuildableItem item : created) {
+            QueueItemCache.get().removeItem(item.getId());
+        }
+        created.clear();
+    }
+
+    @Test
+    void snapshotSortMatchesComparatorSort() throws Exception {
+        AdvancedQueueSorter sorter = AdvancedQueueSorter.get();
+        List<Queue.BuildableItem> items = createItems(500);
+
+        List<Queue.BuildableItem> expected = new ArrayList<>(items);
+        sorter.sortUsingComparator(expected);
+        List<Queue.BuildableItem> actual = new ArrayList<>(items);
+        assertTrue(sorter.sortUsingSnapshot(actual));
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void indexSortMatchesComparatorSort() throws Exception {
+        AdvancedQueueSorter sorter = AdvancedQueueSorter.get();
+        List<Queue.BuildableItem> items = createItems(500);
+
+        List<Queue.BuildableItem> expected = new ArrayList<>(items);
+        sorter.sortUsingComparator(expected);
+        List<Queue.BuildableItem> actual = new ArrayList<>(items);
+        assertTrue(sorter.sortUsingIndex(actual));
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void indexSortLeavesUnknownItemsToTheComparator() throws Exception {
+        List<Queue.BuildableItem> items = createItems(10);
+        items.add(new Queue.BuildableItem(
+                new Queue.WaitingItem(Calendar.getInstance(), project, Collections.emptyList())));
+
+        List<Queue.BuildableItem> copy = new ArrayList<>(items);
+        assertFalse(AdvancedQueueSorter.get().sortUsingIndex(copy));
+        assertEquals(items, copy);
+    }
+
+    @Test
+    void snapshotSortLeavesUnknownItemsToTheComparator() throws Exception {
+        List<Queue.BuildableItem> items = createItems(10);
+        items.add(new Queue.BuildableItem(
+                new Queue.WaitingItem(Calendar.getInstance(), project, Collections.emptyList())));
+
+        List<Queue.BuildableItem> copy = new ArrayList<>(items);
+        assertFalse(AdvancedQueueSorter.get().sortUsingSnapshot(copy));
+        assertEquals(items, copy);
+    }
+
+    private List<Queue.BuildableItem> createItems(int count) {
+        AdvancedQueueSorter sorter = AdvancedQueueSorter.get();
+        List<Queue.BuildableItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Queue.BuildableItem item = new Queue.BuildableItem(
+                    new Queue.WaitingItem(Calendar.getInstance(), project, Collections.emptyList()));
+            sorter.onNewItem(item);
+            created.add(item);
+            items.add(item);
+        }
+        // Queue order is not the sort order
+        Collections.shuffle(items, new Random(4711));
+        return items;
+    }
+}
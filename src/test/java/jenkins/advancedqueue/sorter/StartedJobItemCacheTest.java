@@ -0,0 +1,63 @@
+package jenkins.advancedqueue.sorter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import hudson.model.Run;
+import hudson.model.queue.WorkUnit;
+import org.junit.jupiter.api.Test;
+
+class StartedJobItemCacheTest {
+
+    private final StartedJobItemCache cache = StartedJobItemCache.get();
+
+    @Test
+    void pendingItemIsResolvedWhenTheRunStarts() {
+        ItemInfo itemInfo = new ItemInfo(2_000_001L, 10L, "started-job");
+        WorkUnit workUnit = mock(WorkUnit.class);
+        int pending = cache.getPendingCount();
+
+        cache.addItem(itemInfo, workUnit);
+        assertEquals(pending + 1, cache.getPendingCount());
+        assertNull(cache.getStartedItem("started-job", 7));
+
+        cache.onStarted(mockRun(2_000_001L, 7));
+        assertEquals(pending, cache.getPendingCount());
+        assertSame(itemInfo, cache.getStartedItem("started-job", 7));
+    }
+
+    @Test
+    void runsOfOtherItemsAreIgnored() {
+        ItemInfo itemInfo = new ItemInfo(2_000_002L, 10L, "other-job");
+        cache.addItem(itemInfo, mock(WorkUnit.class));
+
+        cache.onStarted(mockRun(2_000_003L, 1));
+        assertNull(cache.getStartedItem("other-job", 1));
+
+        cache.onStarted(mockRun(2_000_002L, 1));
+        assertSame(itemInfo, cache.getStartedItem("other-job", 1));
+    }
+
+    @Test
+    void alreadyStartedItemIsNotPending() {
+        ItemInfo itemInfo = new ItemInfo(2_000_004L, 10L, "early-job");
+        Run<?, ?> run = mockRun(2_000_004L, 3);
+        WorkUnit workUnit = mock(WorkUnit.class);
+        when(workUnit.getExecutable()).thenReturn(run);
+        int pending = cache.getPendingCount();
+
+        cache.addItem(itemInfo, workUnit);
+        assertEquals(pending, cache.getPendingCount());
+        assertSame(itemInfo, cache.getStartedItem("early-job", 3));
+    }
+
+    private static Run<?, ?> mockRun(long queueId, int number) {
+        Run<?, ?> run = mock(Run.class);
+        when(run.getQueueId()).thenReturn(queueId);
+        when(run.getNumber()).thenReturn(number);
+        return run;
+    }
+}
@@ -321,12 +321,11 @@ class StringFormattingPerformanceTest {
         // Use reflection to access the decision log list
         java.lang.reflect.Field field = ItemInfo.class.getDeclaredField("decisionLog");
         field.setAccessible(true);
-        @SuppressWarnings("unchecked")
-        List<String> decisionLog = (List<String>) field.get(itemInfo);
+        List<?> decisionLog = (List<?>) field.get(itemInfo);
 
         // Simulate old StringBuilder approach
         StringBuilder buffer = new StringBuilder();
-        for (String log : decisionLog) {
+        for (Object log : decisionLog) {
             buffer.append(log).append("\n");
         }
         return buffer.toString();
@@ -3,11 +3,20 @@ package jenkins.advancedqueue.sorter.strategy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import hudson.model.Queue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import jenkins.advancedqueue.sorter.SorterStrategyCallback;
-import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -40,16 +49,6 @@ class FQBaseStrategyTest {
         item = mock(Queue.Item.class);
         callback = mock(SorterStrategyCallback.class);
         leftItem = mock(Queue.LeftItem.class);
-        // Clear static state before each test
-        FQBaseStrategy.prio2weight.clear();
-        FQBaseStrategy.maxStartedWeight = 1.0F;
-    }
-
-    @AfterEach
-    void tearDown() {
-        // Clean up static state after each test
-        FQBaseStrategy.prio2weight.clear();
-        FQBaseStrategy.maxStartedWeight = 1.0F;
     }
 
     @Test
@@ -79,7 +78,7 @@ class FQBaseStrategyTest {
         // maxStartedWeight should now be newWeight
         // Verify by getting a minimum weight for a new priority
         // This should return at least the new maxStartedWeight
-        float minWeight = strategy.getMinimumWeightToAssign(999);
+        double minWeight = strategy.getVirtualStartTime(999);
         assertTrue(minWeight >= newWeight);
     }
 
@@ -88,13 +87,13 @@ class FQBaseStrategyTest {
         int priority = 2;
         float startWeight = 1.0F;
         float expectedStepSize = FQBaseStrategy.MIN_STEP_SIZE * priority;
-        float expectedWeight = startWeight * (1.0F + expectedStepSize);
+        float expectedWeight = startWeight + expectedStepSize;
 
         when(callback.getPriority()).thenReturn(priority);
         when(callback.setWeightSelection(expectedWeight)).thenReturn(callback);
 
-        // Store a value in the prio2weight map
-        FQBaseStrategy.prio2weight.put(priority, startWeight);
+        // Store the last assigned weight of the priority
+        strategy.setLastWeight(priority, startWeight);
 
         SorterStrategyCallback result = strategy.onNewItem(item, callback);
 
@@ -106,38 +105,130 @@ class FQBaseStrategyTest {
         int priority = 3;
         float weight = 2.5F;
 
-        // Initially should return default (1.0F) when no value is in the map
-        assertEquals(1.0F, strategy.getMinimumWeightToAssign(999));
+        // Initially should return default (1.0F) when no weight has been assigned
+        assertEquals(1.0F, strategy.getVirtualStartTime(999));
 
-        // Store a value directly in the map
-        FQBaseStrategy.prio2weight.put(priority, weight);
+        // Store the last assigned weight directly
+        strategy.setLastWeight(priority, weight);
 
         // Now the minimum weight should be at least the stored weight
-        float minWeight = strategy.getMinimumWeightToAssign(priority);
+        double minWeight = strategy.getVirtualStartTime(priority);
         assertTrue(minWeight >= weight, "Expected minimum weight " + minWeight + " to be >= " + weight);
     }
 
+    @Test
+    @SuppressWarnings("deprecation")
+    void testFloatMethodsDelegate() {
+        strategy.setLastWeight(2, 7D);
+
+        assertEquals(7F, strategy.getMinimumWeightToAssign(2));
+        assertEquals(7F + FQBaseStrategy.MIN_STEP_SIZE * 2, strategy.getWeightToUse(2, 7F));
+    }
+
     @Test
     void testGetWeightToUse() {
         int priority = 2;
-        float minimumWeight = 1.5F;
-        float expectedStepSize = FQBaseStrategy.MIN_STEP_SIZE * priority;
-        float expectedWeight = minimumWeight * (1.0F + expectedStepSize);
+        double minimumWeight = 1.5;
+        double expectedWeight = minimumWeight + FQBaseStrategy.MIN_STEP_SIZE * priority;
 
-        float calculatedWeight = strategy.getWeightToUse(priority, minimumWeight);
+        double calculatedWeight = strategy.getWeightToUse(priority, minimumWeight);
 
         assertEquals(expectedWeight, calculatedWeight);
     }
 
     @Test
-    void testGetWeightToUseWithInfinity() {
-        // Test the case where the calculation would result in a positive infinity
-        int priority = 1;
-        float minimumWeight = Float.MAX_VALUE;
+    void testRebase() {
+        float startedWeight = (float) FQBaseStrategy.REBASE_THRESHOLD + 10F;
+        strategy.onStartedItem(leftItem, startedWeight);
+        strategy.setLastWeight(2, startedWeight + 4F);
+        strategy.setLastWeight(3, 5F);
+
+        strategy.rebase();
+
+        // The virtual time is back at the start and the weights keep their distance to it
+        assertEquals(1D, strategy.getVirtualStartTime(1));
+        assertEquals(5D, strategy.getVirtualStartTime(2));
+        assertEquals(1D, strategy.getVirtualStartTime(3));
+    }
 
-        float calculatedWeight = strategy.getWeightToUse(priority, minimumWeight);
+    @Test
+    void testOnNewItemRebasesPastThreshold() {
+        when(callback.getPriority()).thenReturn(1);
+        strategy.onStartedItem(leftItem, (float) FQBaseStrategy.REBASE_THRESHOLD + 10F);
 
-        // Should reset and return the minimum weight
-        assertEquals(1.0F, calculatedWeight);
+        strategy.onNewItem(item, callback);
+
+        verify(callback).setWeightSelection(1F + FQBaseStrategy.MIN_STEP_SIZE);
+    }
+
+    @Test
+    void testOnNewItemRebasesWhenAssignedWeightsPassThreshold() {
+        // The virtual time is far behind the weights of a deep queue that has not started yet
+        strategy.onStartedItem(leftItem, 1001F);
+        strategy.setLastWeight(2, FQBaseStrategy.REBASE_THRESHOLD + 10D);
+        when(callback.getPriority()).thenReturn(2);
+
+        strategy.onNewItem(item, callback);
+
+        // Moved back by the virtual time, the lowest weight left
+        double expectedWeight = FQBaseStrategy.REBASE_THRESHOLD + 10D - 1000D + FQBaseStrategy.MIN_STEP_SIZE * 2;
+        verify(callback).setWeightSelection((float) expectedWeight);
+        assertEquals(1D, strategy.getVirtualStartTime(1));
+    }
+
+    @Test
+    void testConcurrentNewItemsAreFairlyQueued() throws Exception {
+        FQStrategy fqStrategy = new FQStrategy(5, 3);
+        int threads = 8;
+        int itemsPerPriority = 500;
+        List<List<Float>> weights = new ArrayList<>();
+        for (int priority = 0; priority <= 5; priority++) {
+            weights.add(Collections.synchronizedList(new ArrayList<>()));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = thread; i < 5 * itemsPerPriority; i += threads) {
+                        int priority = 1 + i % 5;
+                        SorterStrategyCallback weightCallback = new SorterStrategyCallback() {
+                            @Override
+                            public int getPriority() {
+                                return priority;
+                            }
+
+                            @Override
+                            public SorterStrategyCallback setWeightSelection(float weight) {
+                                weights.get(priority).add(weight);
+                                return this;
+                            }
+                        };
+                        fqStrategy.onNewItem(item, weightCallback);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // With fair queuing every priority steps through the same weights, no weight may be lost or reused
+        List<Float> expected = new ArrayList<>(weights.get(1));
+        Collections.sort(expected);
+        assertEquals(itemsPerPriority, new HashSet<>(expected).size());
+        for (int priority = 2; priority <= 5; priority++) {
+            List<Float> actual = new ArrayList<>(weights.get(priority));
+            Collections.sort(actual);
+            assertEquals(expected, actual, "Weights of priority " + priority);
+        }
     }
 }
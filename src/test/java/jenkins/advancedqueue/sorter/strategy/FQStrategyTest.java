@@ -17,17 +17,17 @@ class FQStrategyTest {
 
     @Test
     void testGetWeightToUse() {
-        assertEquals(1.00000F + FQBaseStrategy.MIN_STEP_SIZE, new FQStrategy().getWeightToUse(1, 1.00000F), 0F);
-        assertEquals(1.00001F + FQBaseStrategy.MIN_STEP_SIZE, new FQStrategy().getWeightToUse(1, 1.00001F), 0F);
-        assertEquals(1F, new FQStrategy().getWeightToUse(1, Float.MAX_VALUE), 0F);
-        assertIncreasingWeight(1F);
-        assertIncreasingWeight(100000F);
+        assertEquals(1D + FQBaseStrategy.MIN_STEP_SIZE, new FQStrategy().getWeightToUse(1, 1D), 0D);
+        assertEquals(7D + FQBaseStrategy.MIN_STEP_SIZE, new FQStrategy().getWeightToUse(1, 7D), 0D);
+        assertEquals(7D + FQBaseStrategy.MIN_STEP_SIZE, new FQStrategy().getWeightToUse(3, 7D), 0D);
+        assertIncreasingWeight(1D);
+        assertIncreasingWeight(FQBaseStrategy.REBASE_THRESHOLD);
     }
 
-    private void assertIncreasingWeight(float initialWeight) {
-        float previousWeight = initialWeight;
+    private void assertIncreasingWeight(double initialWeight) {
+        double previousWeight = initialWeight;
         for (int i = 0; i < 10; ++i) {
-            float newWeight = new FQStrategy().getWeightToUse(1, previousWeight);
+            double newWeight = new FQStrategy().getWeightToUse(1, previousWeight);
             assertTrue(
                     newWeight > previousWeight,
                     "New weight %s should be greater than previous weight %s".formatted(newWeight, previousWeight));
@@ -23,9 +23,6 @@ class WFQStrategyTest {
         strategy = new WFQStrategy();
         item = mock(Queue.Item.class);
         callback = mock(SorterStrategyCallback.class);
-        // Reset static state to avoid test order dependency
-        FQBaseStrategy.prio2weight.clear();
-        FQBaseStrategy.maxStartedWeight = 1.0F;
     }
 
     @Test
@@ -51,10 +48,10 @@ class WFQStrategyTest {
 
     @Test
     void testGetWeightToUse() {
-        assertEquals(1.00000F + FQBaseStrategy.MIN_STEP_SIZE, new WFQStrategy().getWeightToUse(1, 1.00000F), 0F);
-        assertEquals(1.00001F + FQBaseStrategy.MIN_STEP_SIZE, new WFQStrategy().getWeightToUse(1, 1.00001F), 0F);
-        assertEquals(1.00000F + 2 * FQBaseStrategy.MIN_STEP_SIZE, new WFQStrategy().getWeightToUse(2, 1.00000F), 0F);
-        assertEquals(1.00001F + 2 * FQBaseStrategy.MIN_STEP_SIZE, new WFQStrategy().getWeightToUse(2, 1.00001F), 0F);
+        assertEquals(1D + FQBaseStrategy.MIN_STEP_SIZE, new WFQStrategy().getWeightToUse(1, 1D), 0D);
+        assertEquals(7D + FQBaseStrategy.MIN_STEP_SIZE, new WFQStrategy().getWeightToUse(1, 7D), 0D);
+        assertEquals(1D + 2 * FQBaseStrategy.MIN_STEP_SIZE, new WFQStrategy().getWeightToUse(2, 1D), 0D);
+        assertEquals(7D + 2 * FQBaseStrategy.MIN_STEP_SIZE, new WFQStrategy().getWeightToUse(2, 7D), 0D);
     }
 
     @Test
@@ -62,13 +59,13 @@ class WFQStrategyTest {
         int priority = 2;
         float expectedStepSize = FQBaseStrategy.MIN_STEP_SIZE * priority;
         float startWeight = 1.0F;
-        float expectedWeight = startWeight * (1.0F + expectedStepSize);
+        float expectedWeight = startWeight + expectedStepSize;
 
         when(callback.getPriority()).thenReturn(priority);
         when(callback.setWeightSelection(expectedWeight)).thenReturn(callback);
 
-        // Add to prio2weight map to ensure getMinimumWeightToAssign returns the expected value
-        FQBaseStrategy.prio2weight.put(priority, startWeight);
+        // Set the last assigned weight to ensure getVirtualStartTime returns the expected value
+        strategy.setLastWeight(priority, startWeight);
 
         SorterStrategyCallback result = strategy.onNewItem(item, callback);
 
@@ -76,12 +73,14 @@ class WFQStrategyTest {
     }
 
     @Test
-    void testInfinityHandling() {
-        // Test the special case when weight would overflow to infinity
-        float weight = Float.MAX_VALUE;
-
-        // This should return 1.0 instead of infinity
-        assertEquals(1.0F, strategy.getWeightToUse(1, weight), 0.0001F);
+    void testWeightsStayExactForLargeWeights() {
+        // Below the rebase threshold every step still changes the weight handed out as a float
+        double weight = FQBaseStrategy.REBASE_THRESHOLD * 2;
+        for (int i = 0; i < 10; i++) {
+            double newWeight = strategy.getWeightToUse(1, weight);
+            assertTrue((float) newWeight > (float) weight, "Weight %s should increase".formatted(weight));
+            weight = newWeight;
+        }
     }
 
     @Test
@@ -89,11 +88,11 @@ class WFQStrategyTest {
         int priority = 3;
         float weight = 2.5F;
 
-        // Store a weight in the map
-        FQBaseStrategy.prio2weight.put(priority, weight);
+        // Store the last assigned weight
+        strategy.setLastWeight(priority, weight);
 
         // Now the minimum weight should be the stored weight
-        float minWeight = strategy.getMinimumWeightToAssign(priority);
+        double minWeight = strategy.getVirtualStartTime(priority);
         assertTrue(minWeight >= weight, "Expected minimum weight " + minWeight + " to be >= " + weight);
     }
 
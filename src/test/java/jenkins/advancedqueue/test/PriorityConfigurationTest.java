@@ -3,8 +3,13 @@ package jenkins.advancedqueue.test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import hudson.model.FreeStyleProject;
@@ -12,22 +17,32 @@ import hudson.model.Job;
 import hudson.model.ListView;
 import hudson.model.Queue;
 import hudson.model.View;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
 import hudson.util.FormValidation;
 import jakarta.servlet.ServletException;
 import java.io.IOException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 import jenkins.advancedqueue.DecisionLogger;
 import jenkins.advancedqueue.JobGroup;
 import jenkins.advancedqueue.PriorityConfiguration;
 import jenkins.advancedqueue.PriorityConfigurationCallback;
 import jenkins.advancedqueue.PrioritySorterConfiguration;
 import jenkins.advancedqueue.jobinclusion.JobInclusionStrategy;
+import jenkins.advancedqueue.jobinclusion.strategy.AllJobsJobInclusionStrategy;
+import jenkins.advancedqueue.jobinclusion.strategy.FolderBasedJobInclusionStrategy;
+import jenkins.advancedqueue.jobinclusion.strategy.JobInclusionJobProperty;
+import jenkins.advancedqueue.jobinclusion.strategy.PropertyBasedJobInclusionStrategy;
 import jenkins.advancedqueue.priority.PriorityStrategy;
 import jenkins.advancedqueue.sorter.strategy.MultiBucketStrategy;
+import jenkins.model.Jenkins;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.jvnet.hudson.test.JenkinsRule;
 import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+import org.springframework.security.core.Authentication;
 
 @WithJenkins
 class PriorityConfigurationTest {
@@ -182,6 +197,88 @@ class PriorityConfigurationTest {
         assertEquals("Test Job Group", result.getDescription());
     }
 
+    @Test
+    void testGetJobGroupIsCached(JenkinsRule j) throws Exception {
+        PriorityConfiguration configuration =
+                (PriorityConfiguration) j.jenkins.getDescriptor(PriorityConfiguration.class);
+        FreeStyleProject testJob = j.createFreeStyleProject("test-job-group-cached");
+        TestPriorityConfigurationCallback callback = new TestPriorityConfigurationCallback();
+
+        JobGroup jobGroup = new JobGroup();
+        jobGroup.setId(1);
+        JobInclusionStrategy strategy = mock(JobInclusionStrategy.class);
+        when(strategy.contains(callback, testJob)).thenReturn(true);
+        jobGroup.setJobGroupStrategy(strategy);
+        configuration.setJobGroups(List.of(jobGroup));
+
+        assertSame(jobGroup, configuration.getJobGroup(callback, testJob));
+        assertSame(jobGroup, configuration.getJobGroup(callback, testJob));
+        verify(strategy, times(1)).contains(callback, testJob);
+
+        // Saving the job forgets its JobGroup
+        testJob.save();
+        assertSame(jobGroup, configuration.getJobGroup(callback, testJob));
+        verify(strategy, times(2)).contains(callback, testJob);
+
+        // Changing the JobGroups forgets all of them
+        when(strategy.contains(callback, testJob)).thenReturn(false);
+        configuration.getJobGroups().set(0, jobGroup);
+        assertNull(configuration.getJobGroup(callback, testJob));
+        assertNull(configuration.getJobGroup(callback, testJob));
+        verify(strategy, times(3)).contains(callback, testJob);
+    }
+
+    @Test
+    void testGetJobGroupKeepsTheOrderOfFolderGroups(JenkinsRule j) {
+        PriorityConfiguration configuration =
+                (PriorityConfiguration) j.jenkins.getDescriptor(PriorityConfiguration.class);
+        JobGroup teamA = new JobGroup();
+        teamA.setId(0);
+        teamA.setJobGroupStrategy(new FolderBasedJobInclusionStrategy("team-a"));
+        JobGroup all = new JobGroup();
+        all.setId(1);
+        all.setJobGroupStrategy(new AllJobsJobInclusionStrategy());
+        JobGroup teamARepo = new JobGroup();
+        teamARepo.setId(2);
+        teamARepo.setJobGroupStrategy(new FolderBasedJobInclusionStrategy("team-a/repo"));
+        configuration.setJobGroups(List.of(teamA, all, teamARepo));
+        TestPriorityConfigurationCallback callback = new TestPriorityConfigurationCallback();
+
+        assertSame(teamA, configuration.getJobGroup(callback, mockJob("team-a/repo/main")));
+        assertSame(all, configuration.getJobGroup(callback, mockJob("team-ab/repo/main")));
+        assertSame(all, configuration.getJobGroup(callback, mockJob("job")));
+    }
+
+    @Test
+    void testGetJobGroupKeepsTheOrderOfPropertyGroups(JenkinsRule j) {
+        PriorityConfiguration configuration =
+                (PriorityConfiguration) j.jenkins.getDescriptor(PriorityConfiguration.class);
+        JobGroup nightly = new JobGroup();
+        nightly.setId(0);
+        nightly.setJobGroupStrategy(new PropertyBasedJobInclusionStrategy("nightly"));
+        JobGroup other = new JobGroup();
+        other.setId(1);
+        JobInclusionStrategy strategy = mock(JobInclusionStrategy.class);
+        other.setJobGroupStrategy(strategy);
+        JobGroup all = new JobGroup();
+        all.setId(2);
+        all.setJobGroupStrategy(new AllJobsJobInclusionStrategy());
+        JobGroup release = new JobGroup();
+        release.setId(3);
+        release.setJobGroupStrategy(new PropertyBasedJobInclusionStrategy("release"));
+        configuration.setJobGroups(List.of(nightly, other, all, release));
+        TestPriorityConfigurationCallback callback = new TestPriorityConfigurationCallback();
+        FreeStyleProject nightlyJob = mockJob("nightly-job", "nightly");
+        FreeStyleProject releaseJob = mockJob("release-job", "release");
+        when(strategy.contains(callback, releaseJob)).thenReturn(true);
+
+        assertSame(nightly, configuration.getJobGroup(callback, nightlyJob));
+        // The JobGroups before the first property match are still evaluated in order
+        assertSame(other, configuration.getJobGroup(callback, releaseJob));
+        assertSame(all, configuration.getJobGroup(callback, mockJob("job", null)));
+        verify(strategy, times(0)).contains(callback, nightlyJob);
+    }
+
     @Test
     void testGetPriority(JenkinsRule j) throws Exception {
         PriorityConfiguration configuration =
@@ -224,6 +321,50 @@ class PriorityConfigurationTest {
         assertEquals(3, callback2.getPrioritySelection()); // Should get the priority from job group
     }
 
+    @Test
+    void testGetPriorityOnlyImpersonatesWhenNeeded(JenkinsRule j) throws Exception {
+        PriorityConfiguration configuration =
+                (PriorityConfiguration) j.jenkins.getDescriptor(PriorityConfiguration.class);
+        FreeStyleProject testJob = j.createFreeStyleProject("test-impersonate-job");
+        testJob.scheduleBuild2(600);
+        Queue.Item item = testJob.getQueueItem();
+        assertNotNull(item, "Expected a queue item for the scheduled build");
+
+        List<Authentication> authentications = new ArrayList<>();
+        JobInclusionStrategy strategy = mock(JobInclusionStrategy.class);
+        when(strategy.contains(any(), eq(testJob))).thenAnswer(invocation -> {
+            authentications.add(Jenkins.getAuthentication2());
+            return true;
+        });
+        JobGroup jobGroup = new JobGroup();
+        jobGroup.setId(1);
+        jobGroup.setJobGroupStrategy(strategy);
+
+        try (ACLContext ignored = ACL.as2(Jenkins.ANONYMOUS2)) {
+            when(strategy.requiresElevatedPermissions()).thenReturn(false);
+            configuration.setJobGroups(List.of(jobGroup));
+            configuration.getPriority(item, new TestPriorityConfigurationCallback());
+
+            when(strategy.requiresElevatedPermissions()).thenReturn(true);
+            configuration.setJobGroups(List.of(jobGroup));
+            configuration.getPriority(item, new TestPriorityConfigurationCallback());
+        }
+        assertEquals(List.of(Jenkins.ANONYMOUS2, ACL.SYSTEM2), authentications);
+    }
+
+    private static FreeStyleProject mockJob(String fullName) {
+        FreeStyleProject job = mock(FreeStyleProject.class);
+        when(job.getFullName()).thenReturn(fullName);
+        return job;
+    }
+
+    private static FreeStyleProject mockJob(String fullName, String jobGroupName) {
+        FreeStyleProject job = mockJob(fullName);
+        when(job.getProperty(JobInclusionJobProperty.class))
+                .thenReturn(jobGroupName != null ? new JobInclusionJobProperty(true, jobGroupName) : null);
+        return job;
+    }
+
     private static class TestPriorityConfigurationCallback implements PriorityConfigurationCallback {
         private int prioritySelection = -1;
         private int jobGroupId = -1;
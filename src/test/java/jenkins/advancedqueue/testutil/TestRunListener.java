@@ -11,7 +11,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import jenkins.advancedqueue.sorter.ItemInfo;
+import jenkins.advancedqueue.sorter.JobPriorityInfo;
 import jenkins.advancedqueue.sorter.QueueItemCache;
 
 @Extension
@@ -19,7 +19,7 @@ public class TestRunListener extends RunListener<Run> {
 
     private static final Logger LOGGER = Logger.getLogger(TestRunListener.class.getName());
 
-    private static List<ItemInfo> actual;
+    private static List<JobPriorityInfo> actual;
     private static ExpectedItem[] expected;
 
     public static void init(ExpectedItem... expected) {
@@ -31,7 +31,7 @@ public class TestRunListener extends RunListener<Run> {
     public void onStarted(Run r, TaskListener listener) {
         LOGGER.info("ON STARTED: " + r.getParent().getName());
         try {
-            ItemInfo item = QueueItemCache.get().getItem(r.getParent().getName());
+            JobPriorityInfo item = QueueItemCache.get().getJobPriorityInfo(r.getParent().getName());
             if (actual == null) {
                 // Init was not called, initialize
                 TestRunListener.expected = null;